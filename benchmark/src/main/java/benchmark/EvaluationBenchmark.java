@@ -0,0 +1,73 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PieceSquareTables;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluating the children of a position the way a search visits them: make a
+ * move, evaluate, unmake. "incremental" reads the score ChessBoard keeps up to
+ * date, "rescan" recomputes it from every piece on the board. Both pay the same
+ * make/unmake cost, so the difference is the cost of the evaluation itself.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4"})
+    public Positions position;
+
+    private ChessBoard board;
+    private ChessMove[] moves;
+
+    @Setup
+    public void setUp() {
+        ChessGame game = position.newGame();
+        board = game.getBoard();
+        List<ChessMove> legal = new ArrayList<>();
+        board.addLegalMoves(game.getTeamTurn(), legal);
+        moves = legal.toArray(new ChessMove[0]);
+    }
+
+    @Benchmark
+    public int incremental() {
+        int sum = 0;
+        for (ChessMove move : moves) {
+            int undo = board.makeMove(move);
+            sum += board.pieceSquareScore();
+            board.unmakeMove(move, undo);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int rescan() {
+        int sum = 0;
+        for (ChessMove move : moves) {
+            int undo = board.makeMove(move);
+            sum += PieceSquareTables.score(board);
+            board.unmakeMove(move, undo);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,121 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+
+/**
+ * Move path enumeration (perft) through the public engine API. Counting leaf
+ * nodes exercises move generation and move making the same way the server does,
+ * and the totals can be checked against published perft tables.
+ */
+public final class Perft {
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree, using ChessGame.validMoves. Each
+     * move is made and unmade on the game's own board, so only move generation is timed.
+     */
+    public static long legal(ChessGame game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        long nodes = 0;
+
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != side) {
+                    continue;
+                }
+
+                for (ChessMove move : game.validMoves(position)) {
+                    if (depth == 1) {
+                        nodes++;
+                        continue;
+                    }
+                    int undo = board.makeMove(move);
+                    game.setTeamTurn(side.opponent());
+                    nodes += legal(game, depth - 1);
+                    board.unmakeMove(move, undo);
+                    game.setTeamTurn(side);
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree the way the engine search walks it:
+     * packed moves in one reused MoveList per ply, made and unmade on a single board
+     *
+     * @param lists one list for each remaining ply, at least depth + 1 of them
+     */
+    public static long packed(ChessBoard board, ChessGame.TeamColor side, int depth, MoveList[] lists) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        MoveList moves = lists[depth];
+        moves.clear();
+        board.addLegalMoves(side, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int undo = board.makeMove(move);
+            nodes += packed(board, side.opponent(), depth - 1, lists);
+            board.unmakeMove(move, undo);
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes of the pseudo-legal move tree, using ChessPiece.pieceMoves
+     * and ignoring king safety
+     */
+    public static long pseudoLegal(ChessBoard board, ChessGame.TeamColor side, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+
+        ChessGame.TeamColor opponent = side.opponent();
+        long nodes = 0;
+
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPosition position = ChessPosition.of(row, col);
+                ChessPiece piece = board.getPiece(position);
+                if (piece == null || piece.getTeamColor() != side) {
+                    continue;
+                }
+
+                for (ChessMove move : piece.pieceMoves(board, position)) {
+                    if (depth == 1) {
+                        nodes++;
+                        continue;
+                    }
+                    ChessBoard child = board.deepCopy();
+                    ChessPiece placed = move.getPromotionPiece() == null
+                            ? piece
+                            : ChessPiece.of(side, move.getPromotionPiece());
+                    child.addPiece(move.getEndPosition(), placed);
+                    child.addPiece(move.getStartPosition(), null);
+                    nodes += pseudoLegal(child, opponent, depth - 1);
+                }
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.MoveList;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft throughput of the move generator. The "nodes" secondary result is the
+ * leaf count per second; run through Main (or with -prof gc) to also get the
+ * allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4"})
+    public Positions position;
+
+    @Param({"1", "2", "3", "4", "5"})
+    public int depth;
+
+    private ChessGame game;
+    private MoveList[] lists;
+
+    /**
+     * Leaf nodes visited, reported by JMH as nodes/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        lists = new MoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new MoveList();
+        }
+    }
+
+    @Benchmark
+    public long validMoves(NodeCounter counter) {
+        long nodes = Perft.legal(game, depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+
+    @Benchmark
+    public long moveList(NodeCounter counter) {
+        long nodes = Perft.packed(game.getBoard(), game.getTeamTurn(), depth, lists);
+        counter.nodes += nodes;
+        return nodes;
+    }
+
+    @Benchmark
+    public long pieceMoves(NodeCounter counter) {
+        long nodes = Perft.pseudoLegal(game.getBoard(), game.getTeamTurn(), depth);
+        counter.nodes += nodes;
+        return nodes;
+    }
+}
@@ -0,0 +1,126 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.PgnWriter;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PGN import and export throughput. The corpus is a fixed-seed set of random
+ * legal games; the "games" secondary result is games/sec.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PgnBenchmark {
+
+    @Param({"500"})
+    public int gameCount;
+
+    @Param({"80"})
+    public int plies;
+
+    private List<PgnGame> games;
+    private String pgn;
+
+    /**
+     * Games read or written, reported by JMH as games/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class GameCounter {
+        public long games;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            games = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InvalidMoveException {
+        SplittableRandom random = new SplittableRandom(240);
+        games = new ArrayList<>(gameCount);
+        for (int i = 0; i < gameCount; i++) {
+            games.add(randomGame(random, i));
+        }
+
+        StringWriter out = new StringWriter();
+        PgnWriter writer = new PgnWriter(out);
+        for (PgnGame game : games) {
+            writer.writeGame(game);
+        }
+        pgn = out.toString();
+    }
+
+    private PgnGame randomGame(SplittableRandom random, int round) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>(plies);
+        for (int ply = 0; ply < plies; ply++) {
+            List<ChessMove> legal = new ArrayList<>(game.allLegalMoves(game.getTeamTurn()));
+            if (legal.isEmpty()) {
+                break;
+            }
+            ChessMove move = legal.get(random.nextInt(legal.size()));
+            game.makeMove(move);
+            moves.add(move);
+        }
+
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "PgnBenchmark");
+        tags.put("Round", Integer.toString(round + 1));
+        return new PgnGame(tags, moves, "*");
+    }
+
+    @Benchmark
+    public int read(GameCounter counter) throws IOException {
+        int moves = 0;
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            PgnGame game;
+            while ((game = reader.readGame()) != null) {
+                moves += game.moves().size();
+                counter.games++;
+            }
+        }
+        return moves;
+    }
+
+    @Benchmark
+    public int write(GameCounter counter) throws IOException {
+        StringWriter out = new StringWriter(pgn.length());
+        PgnWriter writer = new PgnWriter(out);
+        for (PgnGame game : games) {
+            writer.writeGame(game);
+            counter.games++;
+        }
+        return out.getBuffer().length();
+    }
+}
@@ -0,0 +1,26 @@
+package benchmark;
+
+import chess.ChessGame;
+
+/**
+ * Standard perft positions
+ */
+public enum Positions {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1"),
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1"),
+    POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1");
+
+    private final String fen;
+
+    Positions(String fen) {
+        this.fen = fen;
+    }
+
+    /**
+     * @return a fresh game set up at this position
+     */
+    public ChessGame newGame() {
+        return ChessGame.fromFen(fen);
+    }
+}
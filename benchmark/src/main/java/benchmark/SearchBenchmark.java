@@ -0,0 +1,79 @@
+package benchmark;
+
+import chess.ChessGame;
+import engine.Engine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fixed-depth search speed. The primary result is searches/sec; the "nodes"
+ * secondary result is nodes/sec, which is what bounds how many bot games a
+ * server can run at once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"START", "KIWIPETE", "POSITION_3", "POSITION_4"})
+    public Positions position;
+
+    @Param({"4"})
+    public int depth;
+
+    private ChessGame game;
+    private Engine engine;
+    private SearchLimits limits;
+
+    /**
+     * Nodes searched, reported by JMH as nodes/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        engine = new Engine();
+        limits = SearchLimits.depth(depth);
+    }
+
+    // Every invocation should search from scratch, not replay the previous one from the table
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        engine.clear();
+    }
+
+    @Benchmark
+    public SearchResult search(NodeCounter counter) {
+        SearchResult result = engine.search(game, limits);
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
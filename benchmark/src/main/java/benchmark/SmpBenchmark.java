@@ -0,0 +1,89 @@
+package benchmark;
+
+import chess.ChessGame;
+import engine.Engine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling: time to finish a fixed-depth search as the thread count
+ * grows. Speedup is the threads=1 score divided by the score at N threads.
+ * The "nodes" secondary result shows how much of the extra work is overlap
+ * between threads rather than progress.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SmpBenchmark {
+
+    @Param({"START", "KIWIPETE"})
+    public Positions position;
+
+    @Param({"6"})
+    public int depth;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ChessGame game;
+    private Engine engine;
+    private SearchLimits limits;
+
+    /**
+     * Nodes searched by all threads together
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class NodeCounter {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        engine = new Engine(threads);
+        limits = SearchLimits.depth(depth);
+    }
+
+    // Every invocation should search from scratch, not replay the previous one from the table
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        engine.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        engine.close();
+    }
+
+    @Benchmark
+    public SearchResult search(NodeCounter counter) {
+        SearchResult result = engine.search(game, limits);
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
@@ -71,7 +71,14 @@ public class ServerFacade {
     }
 
     public CreateGameResult createGame(String gameName, String authToken) throws IOException, InterruptedException {
-        String jsonBody = gson.toJson(new CreateGameRequest(gameName));
+        return createGame(gameName, null, authToken);
+    }
+
+    /**
+     * @param botColor the side the engine plays, or null for a game between two people
+     */
+    public CreateGameResult createGame(String gameName, String botColor, String authToken) throws IOException, InterruptedException {
+        String jsonBody = gson.toJson(new CreateGameRequest(gameName, botColor));
 
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "game"))
@@ -39,11 +39,7 @@ public class GamePlayManager {
         if (currentGame == null) {
             return;
         }
-        if (currentGame.isInCheckmate(ChessGame.TeamColor.WHITE) ||
-                currentGame.isInCheckmate(ChessGame.TeamColor.BLACK) ||
-                currentGame.isInStalemate(ChessGame.TeamColor.WHITE) ||
-                currentGame.isInStalemate(ChessGame.TeamColor.BLACK) ||
-                currentGame.isGameOver()) {
+        if (currentGame.getGameStatus().isOver() || currentGame.isGameOver()) {
             isGameOver = true;
         }
     }
@@ -225,28 +221,21 @@ public class GamePlayManager {
         if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
             return null;
         }
-        return new ChessPosition(rank - '0', file - 'a' + 1);
+        return ChessPosition.of(rank - '0', file - 'a' + 1);
     }
 
     private void displayGameplayHelp() {
         String turn = currentGame.getTeamTurn().toString();
-        String status = "";
-
-        if (currentGame.isInCheckmate(ChessGame.TeamColor.WHITE)) {
-            status = " [CHECKMATE Black wins]";
-        }
-        else if (currentGame.isInCheckmate(ChessGame.TeamColor.BLACK)) {
-            status = " [CHECKMATE White wins]";
-        }
-        else if (currentGame.isInStalemate(currentGame.getTeamTurn())) {
-            status = " [STALEMATE]";
-        }
-        else if (currentGame.isInCheck(currentGame.getTeamTurn())) {
-            status = " [CHECK]";
-        }
-        else if (isGameOver && gameOverMessage != null) {
-            status = " [" + gameOverMessage + "]";
-        }
+        String status = switch (currentGame.getGameStatus()) {
+            case CHECKMATE -> currentGame.getTeamTurn() == ChessGame.TeamColor.WHITE
+                    ? " [CHECKMATE Black wins]" : " [CHECKMATE White wins]";
+            case STALEMATE -> " [STALEMATE]";
+            case THREEFOLD_REPETITION -> " [DRAW by threefold repetition]";
+            case FIFTY_MOVE_RULE -> " [DRAW by fifty-move rule]";
+            case INSUFFICIENT_MATERIAL -> " [DRAW by insufficient material]";
+            case CHECK -> " [CHECK]";
+            case IN_PROGRESS -> isGameOver && gameOverMessage != null ? " [" + gameOverMessage + "]" : "";
+        };
 
         renderer.enqueueRenderTasks(new String[]{
                 EscapeSequences.SET_TEXT_COLOR_BLUE + "Turn: " + turn + EscapeSequences.RESET_TEXT_COLOR + status,
@@ -47,7 +47,7 @@ public class BoardRenderer {
             int colStep = viewAs == ChessGame.TeamColor.BLACK ? -1 : 1;
 
             for (int col = startCol; col != endCol; col += colStep) {
-                ChessPosition pos = new ChessPosition(row, col);
+                ChessPosition pos = ChessPosition.of(row, col);
                 ChessPiece piece = board.getPiece(pos);
 
                 boolean isLight = ((row + col) % 2 == 0);
@@ -28,6 +28,7 @@ public class GameListUI {
         }
         lines.add("\nCommands:");
         lines.add("create <name>     - Create a new game");
+        lines.add("create <name> bot <white|black> - Create a game against the engine, which plays that color");
         lines.add("join <number|name> - Join as player");
         lines.add("observe <number|name> - Observe game");
         lines.add("refresh           - Refresh list");
@@ -57,10 +58,20 @@ public class GameListUI {
     }
 
     private static void handleCreate(String[] parts, ServerFacade server, AuthData auth, Renderer r) {
-        if (parts.length < 2) { r.enqueueRenderTask("Usage: create <name>"); return; }
+        if (parts.length < 2) { r.enqueueRenderTask("Usage: create <name> [bot <white|black>]"); return; }
         String name = parts[1];
+        String botColor = null;
+        if (parts.length == 3) {
+            String[] botParts = parts[2].split("\\s+");
+            if (botParts.length != 2 || !botParts[0].equals("bot")
+                    || !(botParts[1].equals("white") || botParts[1].equals("black"))) {
+                r.enqueueRenderTask("Usage: create <name> [bot <white|black>]");
+                return;
+            }
+            botColor = botParts[1].toUpperCase();
+        }
         try {
-            CreateGameResult res = server.createGame(name, auth.authToken());
+            CreateGameResult res = server.createGame(name, botColor, auth.authToken());
             r.enqueueRenderTask("Game '" + name + "' created! ID: " + res.gameID());
         } catch (Exception e) {
             r.enqueueRenderTask("Failed to create game: " + e.getMessage());
@@ -124,7 +135,7 @@ public class GameListUI {
 
     private static void showHelp(Renderer r, GameManager gm) {
         r.enqueueRenderTasks(new String[]{
-                "Commands:", "create <name>", "join <num|name>", "observe <num|name>",
+                "Commands:", "create <name> [bot <white|black>]", "join <num|name>", "observe <num|name>",
                 "refresh", "logout", "quit", "help", "\nPress enter"
         });
         gm.getInput();
@@ -60,13 +60,14 @@ public class WebSocketFacade extends Endpoint {
                     // Detect game-ending messages
                     if (msg.toLowerCase().contains("resigned") ||
                             msg.toLowerCase().contains("checkmate") ||
-                            msg.toLowerCase().contains("stalemate")) {
+                            msg.toLowerCase().contains("is a draw")) {
 
+                        // Draws are announced as "<reason>! Game is a draw."
                         gameManager.setGameOver(msg.contains("resigned")
                                 ? msg
                                 : "Game Over - " + (msg.contains("Checkmate") ?
                                 (msg.contains("Black wins") ? "Black wins!" : "White wins!")
-                                : "Draw by stalemate!"));
+                                : "Draw by " + msg.substring(0, msg.indexOf('!')).toLowerCase() + "!"));
 
                         renderer.enqueueRenderTask("\nType 'leave' to return to game list.");
                     }
@@ -0,0 +1,265 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.TranspositionTable;
+import chess.tablebase.EndgameTables;
+import engine.book.OpeningBook;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Chooses moves for a computer player.
+ * <p>
+ * The search is a fail-soft negamax alpha-beta with iterative deepening: it
+ * searches one ply deeper at a time, trying the previous iteration's best move
+ * first, until it runs out of depth, nodes or time. Leaves are resolved with a
+ * quiescence search over captures and promotions so the static evaluation is
+ * never taken in the middle of an exchange.
+ * <p>
+ * An engine can search with several threads (Lazy SMP). The calling thread runs
+ * the main search and the helpers search the same position alongside it, sharing
+ * a transposition table. The main search decides when to stop; the answer is
+ * the deepest iteration any thread completed. The transposition table is kept
+ * off-heap and between searches, so an engine that follows one game gets faster
+ * as it goes without adding to garbage collection pauses.
+ * <p>
+ * Searches work on private copies of the game's board. A position the search
+ * reaches again, on its own path or from the game's move history, is scored as a
+ * draw. An engine runs one search at a time; close it to stop its helper threads.
+ */
+public class Engine implements AutoCloseable {
+    static final int MATE = 100_000;
+    static final int MAX_PLY = 128;
+
+    private final TranspositionTable table;
+    private final List<Worker> workers = new ArrayList<>();
+    private final ExecutorService helpers;
+    private final SplittableRandom random = new SplittableRandom();
+    private OpeningBook book;
+    private EndgameTables tables;
+
+    /**
+     * Creates a single-threaded engine
+     */
+    public Engine() {
+        this(1);
+    }
+
+    /**
+     * Creates an engine that searches with the given number of threads, with a
+     * transposition table sized from configuration (see TranspositionTable)
+     *
+     * @param threads the calling thread plus threads - 1 helpers
+     */
+    public Engine(int threads) {
+        this(threads, TranspositionTable.fromConfiguration());
+    }
+
+    /**
+     * Creates an engine that searches with the given number of threads
+     *
+     * @param threads       the calling thread plus threads - 1 helpers
+     * @param hashMegabytes the size of the transposition table
+     */
+    public Engine(int threads, int hashMegabytes) {
+        this(threads, new TranspositionTable(hashMegabytes));
+    }
+
+    private Engine(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("An engine needs at least one thread");
+        }
+        this.table = table;
+        for (int id = 0; id < threads; id++) {
+            workers.add(new Worker(id, table));
+        }
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "engine-helper");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return an engine with one thread per available processor
+     */
+    public static Engine withAvailableProcessors() {
+        return new Engine(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Finds the best move for the side to move
+     *
+     * @param game   the game to move in; it is not modified
+     * @param limits when to stop searching
+     * @return the best move found, or null if the side to move has no legal moves
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).move();
+    }
+
+    /**
+     * Searches the current position of a game
+     *
+     * @param game   the game to search; it is not modified
+     * @param limits when to stop searching. The node budget is split evenly between
+     *               the threads.
+     * @return the best move along with its score and search statistics
+     */
+    public synchronized SearchResult search(ChessGame game, SearchLimits limits) {
+        long start = System.nanoTime();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        ChessBoard board = game.getBoard();
+
+        if (!board.hasLegalMove(side)) {
+            int score = board.isInCheck(side) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, System.nanoTime() - start);
+        }
+
+        if (book != null) {
+            ChessMove bookMove = book.pick(game, random);
+            if (bookMove != null) {
+                return new SearchResult(bookMove, 0, 0, 0, System.nanoTime() - start);
+            }
+        }
+
+        // Positions the game already went through count as draws if the search returns to them
+        long[] history = game.repeatablePositionKeys();
+        long deadline = limits.timeLimit() == null ? Long.MAX_VALUE : start + limits.timeLimit().toNanos();
+        long nodesPerWorker = Math.max(1, limits.maxNodes() / workers.size());
+        SharedSearch shared = new SharedSearch(deadline);
+        table.newSearch();
+
+        List<Future<?>> running = new ArrayList<>();
+        for (Worker helper : workers.subList(1, workers.size())) {
+            ChessBoard copy = board.deepCopy();
+            running.add(helpers.submit(() ->
+                    helper.run(copy, side, limits.maxDepth(), nodesPerWorker, tables, history, shared)));
+        }
+
+        Worker main = workers.get(0);
+        main.run(board.deepCopy(), side, limits.maxDepth(), nodesPerWorker, tables, history, shared);
+        shared.stop();
+
+        long nodes = main.nodes();
+        for (int i = 0; i < running.size(); i++) {
+            awaitHelper(running.get(i));
+            nodes += workers.get(i + 1).nodes();
+        }
+
+        // A helper's answer only counts if it got deeper than the main search
+        ChessMove move = main.bestMove();
+        int score = main.bestScore();
+        int depth = main.completedDepth();
+        if (shared.bestDepth() > depth) {
+            move = shared.bestMove();
+            score = shared.bestScore();
+            depth = shared.bestDepth();
+        }
+        return new SearchResult(move, score, depth, nodes, System.nanoTime() - start);
+    }
+
+    private static void awaitHelper(Future<?> helper) {
+        try {
+            helper.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    /**
+     * Reads the line the engine expects from a position out of the transposition
+     * table, so it is only meaningful right after searching that position. The line
+     * ends where the table has no move, the move isn't legal (the entry belonged to
+     * another position) or the line runs into a position it already visited.
+     *
+     * @param game     the position that was searched; it is not modified
+     * @param maxPlies the longest line to return
+     * @return the expected moves, starting with the best move
+     */
+    public synchronized List<ChessMove> principalVariation(ChessGame game, int maxPlies) {
+        ChessBoard board = game.getBoard().deepCopy();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        List<ChessMove> line = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        List<ChessMove> found = new ArrayList<>(1);
+
+        while (line.size() < maxPlies && visited.add(board.zobristKey(side))) {
+            long entry = table.probe(board.zobristKey(side));
+            int packed = entry == 0 ? 0 : TranspositionTable.move(entry);
+            if (packed == 0) {
+                break;
+            }
+            // Stop generating as soon as the stored move turns up
+            found.clear();
+            board.forEachLegalMove(side, move -> {
+                if (TranspositionTable.packMove(move) != packed) {
+                    return true;
+                }
+                found.add(move);
+                return false;
+            });
+            if (found.isEmpty()) {
+                break;
+            }
+            ChessMove next = found.get(0);
+            line.add(next);
+            board.makeMove(next);
+            side = side.opponent();
+        }
+        return line;
+    }
+
+    /**
+     * Sets the opening book to play from. While the position is in the book,
+     * searches answer with a book move (depth 0, no nodes) instead of searching.
+     *
+     * @param book the book, or null to always search
+     */
+    public synchronized void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Sets the endgame tables to probe. Positions they cover are scored from the
+     * tables instead of being searched, so endgames are played perfectly.
+     *
+     * @param tables the tables, or null to search every position
+     */
+    public synchronized void setEndgameTables(EndgameTables tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Forgets everything learned in earlier searches, e.g. before starting a new game
+     */
+    public synchronized void clear() {
+        table.clear();
+    }
+
+    /**
+     * @return the number of threads each search uses
+     */
+    public int threads() {
+        return workers.size();
+    }
+
+    @Override
+    public void close() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
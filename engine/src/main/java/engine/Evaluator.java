@@ -0,0 +1,25 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Static evaluation of a position: material and piece-square values, tapered
+ * between middlegame and endgame (see PieceSquareTables). The board keeps the
+ * score up to date as moves are made and unmade, so evaluating a leaf is O(1).
+ */
+final class Evaluator {
+    // Centipawns for move ordering, indexed by PieceType ordinal; the king is never traded so it counts for nothing
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private Evaluator() {
+    }
+
+    /**
+     * @return the score of the board in centipawns from the given side's point of view
+     */
+    static int evaluate(ChessBoard board, ChessGame.TeamColor side) {
+        int score = board.pieceSquareScore();
+        return side == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
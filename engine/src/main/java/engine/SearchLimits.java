@@ -0,0 +1,60 @@
+package engine;
+
+import java.time.Duration;
+
+/**
+ * Hard budget for one search. The search stops as soon as any limit is reached
+ * and answers with the best move of the deepest iteration it finished.
+ *
+ * @param maxDepth  deepest iteration to search, in plies
+ * @param maxNodes  most nodes to visit, quiescence nodes included
+ * @param timeLimit wall-clock time to search for, or null for no time limit
+ */
+public record SearchLimits(int maxDepth, long maxNodes, Duration timeLimit) {
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("maxDepth must be between 1 and " + MAX_DEPTH);
+        }
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes must be positive");
+        }
+        if (timeLimit != null && (timeLimit.isNegative() || timeLimit.isZero())) {
+            throw new IllegalArgumentException("timeLimit must be positive");
+        }
+    }
+
+    /**
+     * @return limits that only cap the search depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, null);
+    }
+
+    /**
+     * @return limits that only cap the number of nodes searched
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, maxNodes, null);
+    }
+
+    /**
+     * @return limits that only cap the time spent searching
+     */
+    public static SearchLimits time(Duration timeLimit) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, timeLimit);
+    }
+
+    public SearchLimits withDepth(int maxDepth) {
+        return new SearchLimits(maxDepth, maxNodes, timeLimit);
+    }
+
+    public SearchLimits withNodes(long maxNodes) {
+        return new SearchLimits(maxDepth, maxNodes, timeLimit);
+    }
+
+    public SearchLimits withTime(Duration timeLimit) {
+        return new SearchLimits(maxDepth, maxNodes, timeLimit);
+    }
+}
@@ -0,0 +1,42 @@
+package engine;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search
+ *
+ * @param move         the best move found, or null if the side to move has no legal moves
+ * @param score        the score of that move in centipawns from the mover's point of view;
+ *                     scores beyond +/-(Engine.MATE - Engine.MAX_PLY) are forced mates
+ * @param depth        the deepest iteration that was searched to completion
+ * @param nodes        nodes visited, quiescence nodes included
+ * @param elapsedNanos wall-clock time the search took
+ */
+public record SearchResult(ChessMove move, int score, int depth, long nodes, long elapsedNanos) {
+
+    /**
+     * @return search speed, used to size how many searches a machine can run at once
+     */
+    public long nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1_000_000_000L / elapsedNanos;
+    }
+
+    /**
+     * @return True if the score is a forced mate for either side
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Engine.MATE - Engine.MAX_PLY;
+    }
+
+    /**
+     * @return full moves until mate: positive when the side to move mates, negative
+     * when it gets mated, 0 if the score isn't a mate or the side to move is already mated
+     */
+    public int movesToMate() {
+        if (!isMate()) {
+            return 0;
+        }
+        int plies = Engine.MATE - Math.abs(score);
+        return score > 0 ? (plies + 1) / 2 : -plies / 2;
+    }
+}
@@ -0,0 +1,54 @@
+package engine;
+
+import chess.ChessMove;
+
+/**
+ * What the threads of one search share besides the transposition table: the
+ * deadline, the stop signal, and the best completed iteration so far.
+ * <p>
+ * Iterations are merged at depth boundaries with a fixed rule so the outcome
+ * doesn't depend on which thread reported first: the deepest completed iteration
+ * wins, and between equally deep ones the lowest worker id wins.
+ */
+final class SharedSearch {
+    final long deadline;
+    private volatile boolean stopped;
+
+    private int bestWorker = Integer.MAX_VALUE;
+    private int bestDepth;
+    private ChessMove bestMove;
+    private int bestScore;
+
+    SharedSearch(long deadline) {
+        this.deadline = deadline;
+    }
+
+    boolean isStopped() {
+        return stopped;
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    synchronized void completed(int worker, int depth, ChessMove move, int score) {
+        if (depth > bestDepth || (depth == bestDepth && worker < bestWorker)) {
+            bestWorker = worker;
+            bestDepth = depth;
+            bestMove = move;
+            bestScore = score;
+        }
+    }
+
+    synchronized int bestDepth() {
+        return bestDepth;
+    }
+
+    synchronized ChessMove bestMove() {
+        return bestMove;
+    }
+
+    synchronized int bestScore() {
+        return bestScore;
+    }
+}
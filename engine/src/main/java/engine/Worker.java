@@ -0,0 +1,452 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.PackedMove;
+import chess.TranspositionTable;
+import chess.tablebase.EndgameTables;
+import chess.tablebase.Material;
+
+/**
+ * One thread's share of a search: a fail-soft negamax alpha-beta with iterative
+ * deepening and a quiescence search, over its own copy of the board.
+ * <p>
+ * Every worker of a search searches the same root. They only cooperate through
+ * the shared transposition table, where each one finds the cutoffs and best moves
+ * the others have stored (Lazy SMP). Helpers with an odd id start one ply deeper
+ * so the workers spread out over different depths.
+ * <p>
+ * With endgame tables, any position below the root that they cover is scored
+ * from its table instead of being searched.
+ * <p>
+ * A position below the root that repeats one earlier on the search path, or one
+ * the game went through before the root, is scored as a draw: whoever is worse off
+ * can keep repeating it until the game is drawn by threefold repetition.
+ * <p>
+ * Moves are packed ints (see PackedMove) in one MoveList per ply, so a search
+ * allocates nothing per node. They only become ChessMoves when reported.
+ */
+final class Worker {
+    private static final int INFINITY = Engine.MATE + 1;
+    private static final int MAX_PLY = Engine.MAX_PLY;
+    // Nodes between reads of the clock; a power of two
+    private static final int CLOCK_INTERVAL = 1024;
+    // Ordering score of the transposition table move, above every capture
+    private static final int TABLE_MOVE_SCORE = 1 << 20;
+    // probeTables result for a position the endgame tables don't cover
+    private static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private final int id;
+    private final TranspositionTable table;
+    private final MoveList[] moveStack = new MoveList[MAX_PLY];
+    private final int[][] scoreStack = new int[MAX_PLY][MoveList.CAPACITY];
+    // Keys of the game's positions before the root, then of the positions on the search
+    // path; earliest[i] is the first index the position at i could repeat
+    private long[] path = new long[MAX_PLY];
+    private int[] earliest = new int[MAX_PLY];
+    private int rootIndex;
+
+    private ChessBoard board;
+    private EndgameTables tables;
+    private SharedSearch shared;
+    private long nodes;
+    private long maxNodes;
+    private boolean aborted;
+
+    // Outcome of the last run
+    private int bestMove;
+    private int bestScore;
+    private int completedDepth;
+
+    Worker(int id, TranspositionTable table) {
+        this.id = id;
+        this.table = table;
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveStack[ply] = new MoveList();
+        }
+    }
+
+    /**
+     * Searches until maxDepth is done, the node budget or the deadline runs out, or
+     * another worker stops the search. Completed iterations are reported to shared.
+     *
+     * @param board    a copy of the position for this worker alone
+     * @param side     the side to move; it must have at least one legal move
+     * @param maxDepth the deepest iteration to search
+     * @param maxNodes this worker's node budget
+     * @param tables   endgame tables to probe, or null
+     * @param history  keys of the earlier positions the root could repeat, oldest first
+     * @param shared   state shared with the other workers of the search
+     */
+    void run(ChessBoard board, ChessGame.TeamColor side, int maxDepth, long maxNodes, EndgameTables tables,
+             long[] history, SharedSearch shared) {
+        this.board = board;
+        this.tables = tables;
+        this.shared = shared;
+        this.maxNodes = maxNodes;
+        nodes = 0;
+        aborted = false;
+
+        rootIndex = history.length;
+        if (path.length < rootIndex + MAX_PLY) {
+            path = new long[rootIndex + MAX_PLY];
+            earliest = new int[rootIndex + MAX_PLY];
+        }
+        System.arraycopy(history, 0, path, 0, rootIndex);
+
+        // Nothing below the root searches at ply 0, so its list is free for the root moves
+        MoveList rootMoves = moveStack[0];
+        rootMoves.clear();
+        board.addLegalMoves(side, rootMoves);
+        sortByScore(rootMoves);
+        long rootKey = board.zobristKey(side);
+        path[rootIndex] = rootKey;
+        earliest[rootIndex] = 0;
+
+        // Until an iteration finishes a move, fall back to the most promising capture
+        bestMove = rootMoves.get(0);
+        bestScore = 0;
+        completedDepth = 0;
+
+        for (int depth = 1 + (id & 1); depth <= maxDepth; depth++) {
+            int iterationMove = 0;
+            int alpha = -INFINITY;
+
+            for (int i = 0; i < rootMoves.size(); i++) {
+                int move = rootMoves.get(i);
+                enter(move, 0);
+                int undo = board.makeMove(move);
+                int score = -negamax(side.opponent(), depth - 1, 1, -INFINITY, -alpha);
+                board.unmakeMove(move, undo);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationMove = move;
+                }
+            }
+
+            // The previous best move is searched first, so a move that beat it before the
+            // budget ran out is still an improvement even though the iteration is unfinished
+            if (iterationMove != 0) {
+                bestMove = iterationMove;
+                bestScore = alpha;
+            }
+            if (aborted) {
+                break;
+            }
+            completedDepth = depth;
+            table.store(rootKey, depth, bestScore, TranspositionTable.EXACT, PackedMove.key(bestMove));
+            shared.completed(id, depth, PackedMove.toChessMove(bestMove), bestScore);
+
+            for (int i = rootMoves.indexOf(PackedMove.key(bestMove)); i > 0; i--) {
+                rootMoves.swap(i, i - 1);
+            }
+            if (Math.abs(bestScore) >= Engine.MATE - MAX_PLY) {
+                break;
+            }
+        }
+    }
+
+    ChessMove bestMove() {
+        return PackedMove.toChessMove(bestMove);
+    }
+
+    int bestScore() {
+        return bestScore;
+    }
+
+    int completedDepth() {
+        return completedDepth;
+    }
+
+    long nodes() {
+        return nodes;
+    }
+
+    private int negamax(ChessGame.TeamColor side, int depth, int ply, int alpha, int beta) {
+        long key = board.zobristKey(side);
+        if (isRepetition(key, ply)) {
+            return 0;
+        }
+        if (depth <= 0) {
+            return quiesce(side, ply, alpha, beta);
+        }
+        if (outOfBudget()) {
+            return 0;
+        }
+        int tableScore = probeTables(side, ply);
+        if (tableScore != NO_SCORE) {
+            return tableScore;
+        }
+
+        long entry = table.probe(key);
+        int tableMove = 0;
+        if (entry != 0) {
+            tableMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveStack[ply];
+        moves.clear();
+        board.addLegalMoves(side, moves);
+        if (moves.isEmpty()) {
+            // Prefer the quickest mate, and the slowest when being mated
+            return board.isInCheck(side) ? -Engine.MATE + ply : 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, side);
+        }
+
+        int[] scores = scoreStack[ply];
+        scoreMoves(moves, scores, tableMove);
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            enter(move, ply);
+            int undo = board.makeMove(move);
+            int score = -negamax(side.opponent(), depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove(move, undo);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.LOWER
+                : best > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, depth, toTable(best, ply), bound,
+                bound == TranspositionTable.UPPER ? 0 : PackedMove.key(bestMove));
+        return best;
+    }
+
+    /**
+     * Notes, before a move from the position at a ply is made, how far back the position
+     * after it could find a repeat: nowhere before it after a pawn move or capture
+     */
+    private void enter(int move, int ply) {
+        int index = rootIndex + ply + 1;
+        boolean irreversible = PackedMove.isCapture(move)
+                || board.pieceAt(PackedMove.from(move)).getPieceType() == ChessPiece.PieceType.PAWN;
+        earliest[index] = irreversible ? index : earliest[index - 1];
+    }
+
+    /**
+     * Records the key of the position at a ply and checks it against the earlier
+     * positions with the same side to move
+     */
+    private boolean isRepetition(long key, int ply) {
+        int index = rootIndex + ply;
+        path[index] = key;
+        for (int earlier = index - 4; earlier >= earliest[index]; earlier -= 2) {
+            if (path[earlier] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Searches captures and promotions until the position is quiet. The side to move
+     * may "stand pat" on the static evaluation instead of capturing, except when in
+     * check, where every evasion is searched.
+     */
+    private int quiesce(ChessGame.TeamColor side, int ply, int alpha, int beta) {
+        if (outOfBudget()) {
+            return 0;
+        }
+        int tableScore = probeTables(side, ply);
+        if (tableScore != NO_SCORE) {
+            return tableScore;
+        }
+
+        MoveList moves = moveStack[ply];
+        moves.clear();
+        board.addLegalMoves(side, moves);
+        boolean inCheck = board.isInCheck(side);
+        if (moves.isEmpty()) {
+            return inCheck ? -Engine.MATE + ply : 0;
+        }
+
+        int best = -INFINITY;
+        if (!inCheck || ply >= MAX_PLY - 1) {
+            best = Evaluator.evaluate(board, side);
+            if (best >= beta || ply >= MAX_PLY - 1) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        }
+
+        int[] scores = scoreStack[ply];
+        scoreMoves(moves, scores, 0);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, scores, i);
+            if (!inCheck && scores[i] <= 0) {
+                // Moves are picked best first, so only quiet moves are left
+                break;
+            }
+            int undo = board.makeMove(move);
+            int score = -quiesce(side.opponent(), ply + 1, -beta, -alpha);
+            board.unmakeMove(move, undo);
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks it against the budget. The clock is only read every
+     * CLOCK_INTERVAL nodes since System.nanoTime is far slower than a node count.
+     *
+     * @return True once the search has to stop
+     */
+    private boolean outOfBudget() {
+        nodes++;
+        if (nodes >= maxNodes || shared.isStopped()
+                || ((nodes & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() >= shared.deadline)) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    /**
+     * Scores the position from the endgame tables. Table mates count plies from the
+     * probed position, search mates count them from the root.
+     *
+     * @return the score, or NO_SCORE if the tables don't cover the position
+     */
+    private int probeTables(ChessGame.TeamColor side, int ply) {
+        if (tables == null || board.pieceCount() > Material.MAX_PIECES) {
+            return NO_SCORE;
+        }
+        int value = tables.probe(board, side);
+        if (value == EndgameTables.NOT_FOUND) {
+            return NO_SCORE;
+        }
+        if (EndgameTables.isWin(value)) {
+            return Engine.MATE - ply - EndgameTables.plies(value);
+        }
+        if (EndgameTables.isLoss(value)) {
+            return -Engine.MATE + ply + EndgameTables.plies(value);
+        }
+        return 0;
+    }
+
+    /**
+     * Mate scores are stored relative to the node rather than the root, so an entry
+     * stays valid wherever in the tree the position turns up again
+     */
+    private static int toTable(int score, int ply) {
+        if (score >= Engine.MATE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -Engine.MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score >= Engine.MATE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -Engine.MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Scores moves for ordering: the transposition table move first, then captures
+     * by most valuable victim and least valuable attacker, with promotions on top.
+     * Quiet moves score 0 and every capture or promotion scores above it.
+     */
+    private void scoreMoves(MoveList moves, int[] scores, int tableMove) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int score = 0;
+
+            if (PackedMove.isCapture(move)) {
+                ChessPiece.PieceType victim = PackedMove.isEnPassant(move)
+                        ? ChessPiece.PieceType.PAWN
+                        : board.pieceAt(PackedMove.to(move)).getPieceType();
+                ChessPiece attacker = board.pieceAt(PackedMove.from(move));
+                score += 10 * Evaluator.PIECE_VALUES[victim.ordinal()]
+                        - Evaluator.PIECE_VALUES[attacker.getPieceType().ordinal()];
+            }
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            if (promotion != null) {
+                score += Evaluator.PIECE_VALUES[promotion.ordinal()];
+            }
+            if (tableMove != 0 && PackedMove.key(move) == tableMove) {
+                score += TABLE_MOVE_SCORE;
+            }
+            scores[i] = score;
+        }
+    }
+
+    /**
+     * One step of a selection sort: swaps the best-scoring of the remaining moves
+     * into slot i. Cutoffs usually come early, so sorting lazily beats a full sort.
+     */
+    private static int pickNext(MoveList moves, int[] scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) {
+                best = j;
+            }
+        }
+        if (best != i) {
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+            moves.swap(i, best);
+        }
+        return moves.get(i);
+    }
+
+    private void sortByScore(MoveList moves) {
+        int[] scores = scoreStack[0];
+        scoreMoves(moves, scores, 0);
+        for (int i = 0; i < moves.size(); i++) {
+            pickNext(moves, scores, i);
+        }
+    }
+}
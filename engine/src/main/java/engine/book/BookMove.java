@@ -0,0 +1,13 @@
+package engine.book;
+
+import chess.ChessMove;
+
+/**
+ * A move the opening book knows for a position
+ *
+ * @param move   the move
+ * @param weight how strongly the book recommends it; moves are picked with
+ *               probability proportional to their weight
+ */
+public record BookMove(ChessMove move, int weight) {
+}
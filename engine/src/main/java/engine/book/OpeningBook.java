@@ -0,0 +1,171 @@
+package engine.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.TranspositionTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * A read-only opening book, memory-mapped from a file written by
+ * OpeningBookBuilder.
+ * <p>
+ * The file is a 16-byte header followed by 16-byte records sorted by key, so a
+ * lookup is a binary search straight over the mapped pages with no parsing or
+ * copying. Because the file is mapped rather than read, every process that opens
+ * the same book shares one copy of it in the OS page cache. Format (big-endian):
+ * <pre>
+ * header   int magic "CHBK", int version, long record count
+ * record   long Zobrist key (ChessGame.zobristKey), short move
+ *          (TranspositionTable.packMove), short unused, int weight
+ * </pre>
+ * Records with the same key are stored by descending weight. Lookups only read
+ * the mapping, so one book can be shared by any number of threads.
+ */
+public final class OpeningBook implements Closeable {
+    static final int MAGIC = 0x4348424B;
+    // Version 2 keys include castling rights and the en passant file
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer records;
+    private final int size;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer mapping, int size) {
+        this.channel = channel;
+        this.records = mapping;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file can't be read or isn't a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (mapping.getInt(0) != MAGIC) {
+                throw new IOException("Not an opening book: " + path);
+            }
+            if (mapping.getInt(4) != VERSION) {
+                throw new IOException("Unsupported opening book version " + mapping.getInt(4) + ": " + path);
+            }
+            long count = mapping.getLong(8);
+            if (count < 0 || HEADER_BYTES + count * RECORD_BYTES != length) {
+                throw new IOException("Opening book is truncated: " + path);
+            }
+            return new OpeningBook(channel, mapping, (int) count);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Looks up the book moves for the game's current position
+     *
+     * @param game the game to look up
+     * @return the legal book moves, highest weight first; empty if the position isn't in the book
+     */
+    public List<BookMove> lookup(ChessGame game) {
+        List<BookMove> moves = new ArrayList<>();
+        long key = game.zobristKey();
+        int record = firstRecord(key);
+        if (record == size) {
+            return moves;
+        }
+
+        Collection<ChessMove> legalMoves = game.allLegalMoves(game.getTeamTurn());
+        for (; record < size && keyAt(record) == key; record++) {
+            int offset = HEADER_BYTES + record * RECORD_BYTES;
+            int packed = records.getShort(offset + 8) & 0xFFFF;
+            // Resolving against the legal moves also weeds out Zobrist collisions
+            for (ChessMove move : legalMoves) {
+                if (TranspositionTable.packMove(move) == packed) {
+                    moves.add(new BookMove(move, records.getInt(offset + 12)));
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Picks a book move for the game's current position, each with probability
+     * proportional to its weight
+     *
+     * @param game   the game to pick a move in
+     * @param random the source of randomness
+     * @return the move, or null if the position isn't in the book
+     */
+    public ChessMove pick(ChessGame game, RandomGenerator random) {
+        List<BookMove> moves = lookup(game);
+        long total = 0;
+        for (BookMove move : moves) {
+            total += move.weight();
+        }
+        if (total == 0) {
+            return null;
+        }
+
+        long choice = random.nextLong(total);
+        for (BookMove move : moves) {
+            choice -= move.weight();
+            if (choice < 0) {
+                return move.move();
+            }
+        }
+        return moves.get(0).move();
+    }
+
+    /**
+     * @return the number of records in the book
+     */
+    public int size() {
+        return size;
+    }
+
+    // Binary search for the first record with the key, or where it would be
+    private int firstRecord(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int record) {
+        return records.getLong(HEADER_BYTES + record * RECORD_BYTES);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
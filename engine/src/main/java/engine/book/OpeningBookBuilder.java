@@ -0,0 +1,187 @@
+package engine.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.TranspositionTable;
+import chess.pgn.PgnException;
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an opening book from PGN games.
+ * <p>
+ * Every move in the first maxPlies plies of each game is counted toward the
+ * position it was played from. A move scores 2 when its side went on to win, 1
+ * for a draw or unknown result, and 0 for a loss, so moves only ever played by
+ * the losing side drop out of the book.
+ * <p>
+ * Run it as a tool:
+ * {@code OpeningBookBuilder [--max-plies=N] <book file> <pgn file>...}
+ */
+public class OpeningBookBuilder {
+    public static final int DEFAULT_MAX_PLIES = 20;
+
+    private record Entry(long key, int move) {
+    }
+
+    private final int maxPlies;
+    private final Map<Entry, Integer> weights = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLIES);
+    }
+
+    /**
+     * @param maxPlies how many plies into each game to take moves from
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        if (maxPlies < 1) {
+            throw new IllegalArgumentException("maxPlies must be positive");
+        }
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Adds the opening of one game to the book
+     *
+     * @param pgnGame the game
+     * @throws PgnException if the game has an illegal move
+     */
+    public void addGame(PgnGame pgnGame) throws PgnException {
+        ChessGame game;
+        try {
+            game = pgnGame.startingPosition();
+        } catch (IllegalArgumentException e) {
+            throw new PgnException(e.getMessage(), e);
+        }
+
+        List<ChessMove> moves = pgnGame.moves();
+        for (int ply = 0; ply < maxPlies && ply < moves.size(); ply++) {
+            ChessMove move = moves.get(ply);
+            int weight = weight(pgnGame.result(), game.getTeamTurn());
+            if (weight > 0) {
+                weights.merge(new Entry(game.zobristKey(), TranspositionTable.packMove(move)), weight,
+                        (a, b) -> (int) Math.min((long) a + b, Integer.MAX_VALUE));
+            }
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new PgnException("Illegal move in game " + (games + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        games++;
+    }
+
+    /**
+     * Adds the openings of every game in a PGN stream
+     *
+     * @param pgn the games
+     * @return the number of games read
+     * @throws IOException if the stream can't be read or has a malformed game
+     */
+    public int addGames(Reader pgn) throws IOException {
+        int count = 0;
+        PgnReader reader = new PgnReader(pgn);
+        PgnGame game;
+        while ((game = reader.readGame()) != null) {
+            addGame(game);
+            count++;
+        }
+        return count;
+    }
+
+    private static int weight(String result, ChessGame.TeamColor mover) {
+        return switch (result) {
+            case "1-0" -> mover == ChessGame.TeamColor.WHITE ? 2 : 0;
+            case "0-1" -> mover == ChessGame.TeamColor.BLACK ? 2 : 0;
+            default -> 1;
+        };
+    }
+
+    /**
+     * @return the number of distinct (position, move) records so far
+     */
+    public int size() {
+        return weights.size();
+    }
+
+    /**
+     * Writes the book file, replacing it if it exists
+     *
+     * @param path where to write the book
+     * @throws IOException if the file can't be written
+     */
+    public void write(Path path) throws IOException {
+        List<Map.Entry<Entry, Integer>> records = new ArrayList<>(weights.entrySet());
+        records.sort(Comparator.<Map.Entry<Entry, Integer>>comparingLong(record -> record.getKey().key())
+                .thenComparing(Map.Entry::getValue, Comparator.reverseOrder())
+                .thenComparingInt(record -> record.getKey().move()));
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(records.size());
+
+            for (Map.Entry<Entry, Integer> record : records) {
+                if (buffer.remaining() < OpeningBook.RECORD_BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putLong(record.getKey().key())
+                        .putShort((short) record.getKey().move())
+                        .putShort((short) 0)
+                        .putInt(record.getValue());
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    public static void main(String[] args) throws IOException {
+        int maxPlies = DEFAULT_MAX_PLIES;
+        List<String> paths = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--max-plies=")) {
+                maxPlies = Integer.parseInt(arg.substring("--max-plies=".length()));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: OpeningBookBuilder [--max-plies=N] <book file> <pgn file>...");
+            System.exit(2);
+        }
+
+        OpeningBookBuilder builder = new OpeningBookBuilder(maxPlies);
+        for (String pgn : paths.subList(1, paths.size())) {
+            try (Reader reader = Files.newBufferedReader(Path.of(pgn), StandardCharsets.UTF_8)) {
+                int games = builder.addGames(reader);
+                System.out.println("Read " + games + " games from " + pgn);
+            }
+        }
+        builder.write(Path.of(paths.get(0)));
+        System.out.println("Wrote " + builder.size() + " records to " + paths.get(0));
+    }
+}
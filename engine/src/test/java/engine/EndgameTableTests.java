@@ -0,0 +1,182 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.tablebase.EndgameTables;
+import chess.tablebase.Material;
+import chess.tablebase.TablebaseGenerator;
+import chess.tablebase.TablebaseResult;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndgameTableTests {
+    private static TablebaseGenerator generator;
+    private static Path directory;
+    private static EndgameTables tables;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        generator = new TablebaseGenerator();
+        generator.generate(Material.parse("KRvK"));
+        generator.generate(Material.parse("KPvK"));
+        directory = Files.createTempDirectory("tables");
+        generator.write(directory);
+        tables = EndgameTables.open(directory);
+    }
+
+    @AfterAll
+    static void cleanUp() throws IOException {
+        tables.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void writesDependencies() {
+        // KPvK needs every table a promotion can reach
+        assertEquals(5, tables.size());
+    }
+
+    @Test
+    void longestMates() {
+        // The longest wins are 10 moves for the queen and 16 for the rook
+        assertEquals(19, longestWin(generator.generate(Material.parse("KQvK"))));
+        assertEquals(31, longestWin(generator.generate(Material.parse("KRvK"))));
+    }
+
+    private static int longestWin(byte[] values) {
+        int longest = 0;
+        for (byte value : values) {
+            if (EndgameTables.isWin(value & 0xFF)) {
+                longest = Math.max(longest, value & 0xFF);
+            }
+        }
+        return longest;
+    }
+
+    @Test
+    void checkmateIsLostNow() {
+        ChessGame game = ChessGame.fromFen("k7/1Q6/1K6/8/8/8/8/8 b - - 0 1");
+
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.LOSS, 0), tables.probe(game));
+    }
+
+    @Test
+    void stalemateAndBareKingsAreDraws() {
+        ChessGame stalemate = ChessGame.fromFen("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1");
+        assertEquals(TablebaseResult.Outcome.DRAW, tables.probe(stalemate).outcome());
+
+        // Bare kings have no table, as there is nothing to look up
+        assertNull(tables.probe(ChessGame.fromFen("k7/8/1K6/8/8/8/8/8 w - - 0 1")));
+        assertNull(tables.probe(new ChessGame()));
+    }
+
+    @Test
+    void pawnEndingDependsOnWhoMoves() {
+        // White gets around the king and promotes, but black to move is stalemated
+        ChessGame whiteToMove = ChessGame.fromFen("4k3/4P3/4K3/8/8/8/8/8 w - - 0 1");
+        ChessGame blackToMove = ChessGame.fromFen("4k3/4P3/4K3/8/8/8/8/8 b - - 0 1");
+
+        assertEquals(TablebaseResult.Outcome.WIN, tables.probe(whiteToMove).outcome());
+        assertEquals(TablebaseResult.Outcome.DRAW, tables.probe(blackToMove).outcome());
+    }
+
+    @Test
+    void tablesAreConsistentWithTheirMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        TablebaseResult start = tables.probe(game);
+        assertEquals(TablebaseResult.Outcome.WIN, start.outcome());
+
+        // Following the engine's moves for both sides shortens the mate by one ply each time
+        try (Engine engine = new Engine(1, 1)) {
+            engine.setEndgameTables(tables);
+            for (int plies = start.plies(); plies > 0; plies--) {
+                assertEquals(plies, tables.probe(game).plies());
+                ChessMove move = engine.bestMove(game, SearchLimits.depth(1));
+                game.makeMove(move);
+            }
+        }
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void engineUsesTables() {
+        // Without tables a depth 2 search can't see this mate
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1");
+        try (Engine engine = new Engine(1, 1)) {
+            assertFalse(engine.search(game, SearchLimits.depth(2)).isMate());
+
+            engine.setEndgameTables(tables);
+            SearchResult result = engine.search(game, SearchLimits.depth(2));
+            assertTrue(result.isMate());
+            assertEquals(Engine.MATE - tables.probe(game).plies(), result.score());
+        }
+    }
+
+    @Test
+    void castlingRightsSkipTheTables() {
+        // The tables are built without castling, so the same squares with a right to castle aren't looked up
+        assertNull(tables.probe(ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w Q - 0 1")));
+        assertEquals(TablebaseResult.Outcome.WIN,
+                tables.probe(ChessGame.fromFen("8/8/8/4k3/8/8/8/R3K3 w - - 0 1")).outcome());
+    }
+
+    @Test
+    void enPassantSkipsTheTables() throws IOException {
+        // Black to move saves the game with dxe3 e.p., taking the pawn that would queen;
+        // without it 1... d3+ 2. Kxd3 leaves the e-pawn outside the king's square. A table
+        // built without en passant only knows the loss, so this fake KPvKP table calls
+        // every position lost for the side to move.
+        Path fake = Files.createTempDirectory("fake-tables");
+        Path file = fake.resolve("KPvKP.egtb");
+        Material material = Material.parse("KPvKP");
+        ByteBuffer header = ByteBuffer.allocate(16).putInt(0x43485442).putInt(1)
+                .put(new byte[]{1, 6, 7, 12}).putInt(0);
+        byte[] values = new byte[material.positions()];
+        Arrays.fill(values, (byte) 2);
+        try {
+            Files.write(file, header.array());
+            Files.write(file, values, StandardOpenOption.APPEND);
+            try (EndgameTables lost = EndgameTables.open(fake)) {
+                ChessGame canTake = ChessGame.fromFen("8/8/8/8/3pP3/8/2K4k/8 b - e3 0 1");
+                ChessGame cannotTake = ChessGame.fromFen("8/8/8/8/3pP3/8/2K4k/8 b - - 0 1");
+
+                assertNull(lost.probe(canTake));
+                assertEquals(EndgameTables.NOT_FOUND, lost.probe(canTake.getBoard(), ChessGame.TeamColor.BLACK));
+                assertEquals(TablebaseResult.Outcome.LOSS, lost.probe(cannotTake).outcome());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(fake);
+        }
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path other = Files.createTempDirectory("not-tables");
+        Path file = other.resolve("KQvK.egtb");
+        try {
+            Files.write(file, new byte[64]);
+            assertThrows(IOException.class, () -> EndgameTables.open(other));
+        } finally {
+            Files.delete(file);
+            Files.delete(other);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTests {
+    private Engine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new Engine();
+    }
+
+    @Test
+    void findsMateInOne() {
+        // Back rank mate: Ra8#
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        SearchResult result = engine.search(game, SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.move());
+        assertTrue(result.isMate(), "Score should be a mate score");
+        assertTrue(result.score() > 0, "Mate should be for the side to move");
+    }
+
+    @Test
+    void capturesHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        ChessMove move = engine.bestMove(game, SearchLimits.depth(2));
+
+        assertEquals(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(5, 4), null), move);
+    }
+
+    @Test
+    void promotesToQueen() {
+        // The king is coming for the pawn, so it has to promote now
+        ChessGame game = ChessGame.fromFen("8/P1k5/8/8/8/8/8/K7 w - - 0 1");
+
+        ChessMove move = engine.bestMove(game, SearchLimits.depth(2));
+
+        assertEquals(ChessPiece.PieceType.QUEEN, move.getPromotionPiece());
+    }
+
+    @Test
+    void noMoveWhenCheckmated() {
+        ChessGame game = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+
+        SearchResult result = engine.search(game, SearchLimits.depth(4));
+
+        assertNull(result.move());
+        assertEquals(-Engine.MATE, result.score());
+    }
+
+    @Test
+    void noMoveWhenStalemated() {
+        ChessGame game = ChessGame.fromFen("7k/5Q2/6K1/8/8/8/8/8 b - - 0 1");
+
+        SearchResult result = engine.search(game, SearchLimits.depth(4));
+
+        assertNull(result.move());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    void takesRepetitionDrawWhenLosing() throws InvalidMoveException {
+        // A queen down, but the king can shuffle back to a position the game has already seen twice
+        String fen = "k1q5/8/8/8/8/8/8/6K1 w - - 0 1";
+        ChessMove kingOut = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(1, 8), null);
+        ChessGame game = ChessGame.fromFen(fen);
+        game.makeMove(kingOut);
+        game.makeMove(new ChessMove(ChessPosition.of(8, 1), ChessPosition.of(8, 2), null));
+        game.makeMove(new ChessMove(ChessPosition.of(1, 8), ChessPosition.of(1, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 2), ChessPosition.of(8, 1), null));
+
+        SearchResult withHistory = engine.search(game, SearchLimits.depth(3));
+        engine.clear();
+        SearchResult withoutHistory = engine.search(ChessGame.fromFen(fen), SearchLimits.depth(3));
+
+        assertEquals(kingOut, withHistory.move());
+        assertEquals(0, withHistory.score(), "Repeating the position should score as a draw");
+        assertTrue(withoutHistory.score() < 0, "Without the history there is nothing to repeat");
+    }
+
+    @Test
+    void respectsNodeBudget() {
+        ChessGame game = new ChessGame();
+
+        SearchResult result = engine.search(game, SearchLimits.nodes(5_000));
+
+        assertNotNull(result.move());
+        assertTrue(result.nodes() <= 5_000, "Searched " + result.nodes() + " nodes");
+        assertTrue(game.validMoves(result.move().getStartPosition()).contains(result.move()));
+    }
+
+    @Test
+    void respectsTimeBudget() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+
+        SearchResult result = engine.search(game, SearchLimits.time(Duration.ofMillis(100)));
+
+        assertNotNull(result.move());
+        assertTrue(result.elapsedNanos() < Duration.ofMillis(300).toNanos(),
+                "Search took " + result.elapsedNanos() / 1_000_000 + "ms");
+        assertTrue(result.nodesPerSecond() > 0);
+    }
+
+    @Test
+    void doesNotModifyGame() {
+        ChessGame game = new ChessGame();
+        ChessGame before = ChessGame.fromFen(game.toFen());
+
+        engine.bestMove(game, SearchLimits.depth(3));
+
+        assertEquals(before, game);
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void parallelSearchFindsMate() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        try (Engine parallel = new Engine(4)) {
+            SearchResult result = parallel.search(game, SearchLimits.depth(4));
+
+            assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.move());
+            assertTrue(result.isMate(), "Score should be a mate score");
+        }
+    }
+
+    @Test
+    void parallelSearchRespectsTimeBudget() {
+        ChessGame game = ChessGame.fromFen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1");
+
+        try (Engine parallel = new Engine(4)) {
+            SearchResult result = parallel.search(game, SearchLimits.time(Duration.ofMillis(100)));
+
+            assertNotNull(result.move());
+            assertTrue(game.validMoves(result.move().getStartPosition()).contains(result.move()));
+            assertTrue(result.elapsedNanos() < Duration.ofMillis(300).toNanos(),
+                    "Search took " + result.elapsedNanos() / 1_000_000 + "ms");
+        }
+    }
+
+    @Test
+    void invalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(0));
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.nodes(0));
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.time(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new Engine(0));
+        assertThrows(IllegalArgumentException.class, () -> new Engine(1, 0));
+    }
+}
@@ -0,0 +1,85 @@
+package engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.PieceSquareTables;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluatorTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void startingPositionIsEven() {
+        ChessGame game = new ChessGame();
+
+        assertEquals(0, game.getBoard().pieceSquareScore());
+        assertEquals(0, Evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void mirroredPositionsHaveOppositeScores() {
+        ChessBoard white = ChessGame.fromFen("4k3/8/8/8/8/2N5/3P4/4K3 w - - 0 1").getBoard();
+        ChessBoard black = ChessGame.fromFen("4k3/3p4/2n5/8/8/8/8/4K3 w - - 0 1").getBoard();
+
+        assertTrue(white.pieceSquareScore() > 0, "The side with the extra pieces should be ahead");
+        assertEquals(-white.pieceSquareScore(), black.pieceSquareScore());
+        assertEquals(Evaluator.evaluate(white, ChessGame.TeamColor.WHITE),
+                Evaluator.evaluate(black, ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void centralKnightBeatsCornerKnight() {
+        ChessBoard center = ChessGame.fromFen("4k3/8/8/8/3N4/8/8/4K3 w - - 0 1").getBoard();
+        ChessBoard corner = ChessGame.fromFen("4k3/8/8/8/8/8/8/N3K3 w - - 0 1").getBoard();
+
+        assertTrue(center.pieceSquareScore() > corner.pieceSquareScore());
+    }
+
+    @Test
+    void incrementalScoreMatchesRescan() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        SplittableRandom random = new SplittableRandom(7);
+        List<ChessMove> played = new ArrayList<>();
+        List<Integer> undos = new ArrayList<>();
+        ChessGame.TeamColor side = ChessGame.TeamColor.WHITE;
+
+        // Random walks forward and back, with captures and promotions along the way
+        for (int step = 0; step < 2000; step++) {
+            List<ChessMove> moves = new ArrayList<>();
+            board.addLegalMoves(side, moves);
+            if (moves.isEmpty() || (!played.isEmpty() && random.nextInt(3) == 0)) {
+                int last = played.size() - 1;
+                board.unmakeMove(played.remove(last), undos.remove(last));
+            } else {
+                ChessMove move = moves.get(random.nextInt(moves.size()));
+                undos.add(board.makeMove(move));
+                played.add(move);
+            }
+            side = played.size() % 2 == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            assertEquals(PieceSquareTables.score(board), board.pieceSquareScore());
+        }
+
+        while (!played.isEmpty()) {
+            int last = played.size() - 1;
+            board.unmakeMove(played.remove(last), undos.remove(last));
+        }
+        assertEquals(ChessGame.fromFen(KIWIPETE).getBoard().pieceSquareScore(), board.pieceSquareScore());
+    }
+
+    @Test
+    void scoreSurvivesCopiesAndSerialization() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        Gson gson = new Gson();
+
+        assertEquals(board.pieceSquareScore(), board.deepCopy().pieceSquareScore());
+        assertEquals(board.pieceSquareScore(), gson.fromJson(gson.toJson(board), ChessBoard.class).pieceSquareScore());
+    }
+}
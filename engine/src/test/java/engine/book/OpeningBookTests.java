@@ -0,0 +1,107 @@
+package engine.book;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import engine.Engine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTests {
+    private static final String GAMES = """
+            [Result "1-0"]
+
+            1. e4 e5 2. Nf3 Nc6 1-0
+
+            [Result "1/2-1/2"]
+
+            1. e4 c5 2. Nf3 1/2-1/2
+
+            [Result "0-1"]
+
+            1. d4 d5 0-1
+
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 1-0
+            """;
+
+    private Path bookPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        bookPath = Files.createTempFile("book", ".bin");
+        bookPath.toFile().deleteOnExit();
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        assertEquals(4, builder.addGames(new StringReader(GAMES)));
+        builder.write(bookPath);
+    }
+
+    @Test
+    void lookupWeightsMovesByResult() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            List<BookMove> moves = book.lookup(new ChessGame());
+
+            // e4: two wins and a draw; d4 was only played by the loser
+            assertEquals(1, moves.size());
+            assertEquals(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null), moves.get(0).move());
+            assertEquals(5, moves.get(0).weight());
+        }
+    }
+
+    @Test
+    void lookupAfterFirstMove() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            List<BookMove> moves = book.lookup(game);
+
+            // Black's e5 only lost; c5 drew
+            assertEquals(1, moves.size());
+            assertEquals(new ChessMove(ChessPosition.of(7, 3), ChessPosition.of(5, 3), null), moves.get(0).move());
+        }
+    }
+
+    @Test
+    void lookupMissingPosition() throws IOException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            assertTrue(book.lookup(game).isEmpty());
+            assertNull(book.pick(game, new SplittableRandom(1)));
+        }
+    }
+
+    @Test
+    void engineAnswersFromBook() throws IOException {
+        try (OpeningBook book = OpeningBook.open(bookPath); Engine engine = new Engine()) {
+            engine.setOpeningBook(book);
+            SearchResult result = engine.search(new ChessGame(), SearchLimits.depth(4));
+
+            assertEquals(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null), result.move());
+            assertEquals(0, result.nodes());
+        }
+    }
+
+    @Test
+    void openRejectsOtherFiles() throws IOException {
+        Path other = Files.createTempFile("notabook", ".bin");
+        other.toFile().deleteOnExit();
+        Files.writeString(other, "this is not an opening book");
+
+        assertThrows(IOException.class, () -> OpeningBook.open(other));
+    }
+}
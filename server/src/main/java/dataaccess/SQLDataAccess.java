@@ -1,14 +1,23 @@
 package dataaccess;
 
+import chess.ChessBoard;
 import chess.ChessGame;
-import com.google.gson.Gson;
+import chess.ChessGameCodec;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import models.AuthData;
 import models.GameData;
 import models.UserData;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.sql.*;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class SQLDataAccess implements DataAccess {
 
@@ -51,7 +60,7 @@ public class SQLDataAccess implements DataAccess {
                     whiteUsername VARCHAR(255),
                     blackUsername VARCHAR(255),
                     gameName VARCHAR(255) NOT NULL,
-                    game TEXT NOT NULL
+                    game BLOB NOT NULL
                 )
                 """;
 
@@ -64,6 +73,7 @@ public class SQLDataAccess implements DataAccess {
             try (var stmt = conn.prepareStatement(createGameTable)) {
                 stmt.executeUpdate();
             }
+            migrateGameColumn(conn);
 
         } catch (SQLException ex) {
             throw new DataAccessException("Unable to configure database: " + ex.getMessage());
@@ -73,6 +83,111 @@ public class SQLDataAccess implements DataAccess {
 
     }
 
+    // Games used to be stored as Gson JSON in a TEXT column; they are now stored with
+    // ChessGameCodec. The converted games go into a new BLOB column first, and one
+    // ALTER then drops the JSON column and renames the new one into its place. Until
+    // that ALTER the JSON column is still TEXT, so a migration that fails or is cut
+    // off partway simply starts over on the next startup.
+    private void migrateGameColumn(Connection conn) throws SQLException, DataAccessException {
+        String type = columnType(conn, "game");
+        if (type == null || "BLOB".equalsIgnoreCase(type)) {
+            return;
+        }
+
+        Map<Integer, byte[]> converted = new HashMap<>();
+        try (var stmt = conn.prepareStatement("SELECT gameID, game FROM games");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                int gameID = rs.getInt("gameID");
+                converted.put(gameID, encodeGame(decodeLegacyGame(gameID, rs.getString("game"))));
+            }
+        }
+
+        if (columnType(conn, "game_codec") == null) {
+            try (var stmt = conn.prepareStatement("ALTER TABLE games ADD COLUMN game_codec BLOB NULL")) {
+                stmt.executeUpdate();
+            }
+        }
+        try (var stmt = conn.prepareStatement("UPDATE games SET game_codec = ? WHERE gameID = ?")) {
+            for (Map.Entry<Integer, byte[]> row : converted.entrySet()) {
+                stmt.setBytes(1, row.getValue());
+                stmt.setInt(2, row.getKey());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+        try (var stmt = conn.prepareStatement(
+                "ALTER TABLE games DROP COLUMN game, CHANGE COLUMN game_codec game BLOB NOT NULL AFTER gameName")) {
+            stmt.executeUpdate();
+        }
+    }
+
+    // The SQL type of a column of the games table, or null if there is no such column
+    private static String columnType(Connection conn, String column) throws SQLException {
+        try (ResultSet columns = conn.getMetaData().getColumns(conn.getCatalog(), null, "games", column)) {
+            return columns.next() ? columns.getString("TYPE_NAME") : null;
+        }
+    }
+
+    // Reads a game the way Gson wrote the old classes: the side to move, the game over
+    // flag and an 8x8 array of pieces indexed [row - 1][column - 1]
+    private static ChessGame decodeLegacyGame(int gameID, String json) throws DataAccessException {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            JsonElement root = JsonParser.parseString(json);
+            if (root.isJsonNull()) {
+                return null;
+            }
+            JsonObject saved = root.getAsJsonObject();
+
+            ChessBoard board = new ChessBoard();
+            JsonArray rows = saved.getAsJsonObject("chessBoard").getAsJsonArray("board");
+            for (int row = 0; row < 8; row++) {
+                JsonArray columns = rows.get(row).getAsJsonArray();
+                for (int col = 0; col < 8; col++) {
+                    JsonElement square = columns.get(col);
+                    if (square.isJsonNull()) {
+                        continue;
+                    }
+                    JsonObject piece = square.getAsJsonObject();
+                    board.addPiece(ChessPosition.of(row + 1, col + 1), ChessPiece.of(
+                            ChessGame.TeamColor.valueOf(piece.get("teamColor").getAsString()),
+                            ChessPiece.PieceType.valueOf(piece.get("pieceType").getAsString())));
+                }
+            }
+
+            ChessGame game = new ChessGame();
+            game.setBoard(board);
+            if (saved.has("currentTeam")) {
+                game.setTeamTurn(ChessGame.TeamColor.valueOf(saved.get("currentTeam").getAsString()));
+            }
+            game.setGameOver(saved.has("gameOver") && saved.get("gameOver").getAsBoolean());
+            return game;
+        } catch (RuntimeException e) {
+            throw new DataAccessException("Unreadable JSON game data for game " + gameID + ": " + e.getMessage(), e);
+        }
+    }
+
+    // -----------------------------------------------------------------
+    // Game (de)serialization - a null game is stored as an empty blob
+    // -----------------------------------------------------------------
+    private static byte[] encodeGame(ChessGame game) {
+        return game == null ? new byte[0] : ChessGameCodec.encode(game);
+    }
+
+    private static ChessGame decodeGame(int gameID, byte[] data) throws DataAccessException {
+        if (data == null || data.length == 0) {
+            return null;
+        }
+        try {
+            return ChessGameCodec.decode(data);
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException("Unreadable game data for game " + gameID + ": " + e.getMessage(), e);
+        }
+    }
+
     // -----------------------------------------------------------------
     // CLEAR – delete every row from the three tables
     // -----------------------------------------------------------------
@@ -137,12 +252,11 @@ public class SQLDataAccess implements DataAccess {
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
-            Gson gson = new Gson();
             pstmt.setInt(1, game.gameID());
             pstmt.setString(2, game.whiteUsername());
             pstmt.setString(3, game.blackUsername());
             pstmt.setString(4, game.gameName());
-            pstmt.setString(5, gson.toJson(game.game()));
+            pstmt.setBytes(5, encodeGame(game.game()));
             pstmt.executeUpdate();
 
             return game.gameID();
@@ -161,13 +275,12 @@ public class SQLDataAccess implements DataAccess {
             pstmt.setInt(1, gameID);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                Gson gson = new Gson();
                 return new GameData(
                         rs.getInt("gameID"),
                         rs.getString("whiteUsername"),
                         rs.getString("blackUsername"),
                         rs.getString("gameName"),
-                        gson.fromJson(rs.getString("game"), ChessGame.class)
+                        decodeGame(gameID, rs.getBytes("game"))
                 );
             } else {
                 return null;
@@ -183,15 +296,15 @@ public class SQLDataAccess implements DataAccess {
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
 
-            Gson gson = new Gson();
             List<GameData> games = new java.util.ArrayList<>();
             while (rs.next()) {
+                int gameID = rs.getInt("gameID");
                 games.add(new GameData(
-                        rs.getInt("gameID"),
+                        gameID,
                         rs.getString("whiteUsername"),
                         rs.getString("blackUsername"),
                         rs.getString("gameName"),
-                        gson.fromJson(rs.getString("game"), ChessGame.class)
+                        decodeGame(gameID, rs.getBytes("game"))
                 ));
             }
             return games;
@@ -203,12 +316,11 @@ public class SQLDataAccess implements DataAccess {
     @Override public void updateGame(GameData game) throws DataAccessException {
         String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
         try (Connection conn = DatabaseManager.getConnection()) {
-            Gson gson = new Gson();
             PreparedStatement pstmt = conn.prepareStatement(sql);
             pstmt.setString(1, game.whiteUsername());
             pstmt.setString(2, game.blackUsername());
             pstmt.setString(3, game.gameName());
-            pstmt.setString(4, gson.toJson(game.game()));
+            pstmt.setBytes(4, encodeGame(game.game()));
             pstmt.setInt(5, game.gameID());
             pstmt.executeUpdate();
         } catch (SQLException e) {
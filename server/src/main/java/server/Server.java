@@ -9,6 +9,8 @@ import io.javalin.http.Context;
 import models.*;
 import org.jetbrains.annotations.NotNull;
 import server.websocket.WebSocketManager;
+import service.AnalysisService;
+import service.BotService;
 import service.ClearService;
 import service.GameService;
 import service.UserService;
@@ -22,6 +24,8 @@ public class Server {
     private final GameService gameService;
     private final UserService userService;
     private final ClearService clearService;
+    private final AnalysisService analysisService;
+    private final BotService botService;
     private final WebSocketManager webSocketHandler;
     private final Gson gson = new Gson();
 
@@ -36,7 +40,9 @@ public class Server {
         this.userService = new UserService(sqlDataAccess);
         this.gameService = new GameService(sqlDataAccess);
         this.clearService = new ClearService(sqlDataAccess);
-        this.webSocketHandler = new WebSocketManager(gameService, userService);
+        this.analysisService = new AnalysisService(sqlDataAccess);
+        this.botService = new BotService(gameService);
+        this.webSocketHandler = new WebSocketManager(gameService, userService, botService);
 
         javalin = Javalin.create(config -> {
             config.staticFiles.add("web");
@@ -61,6 +67,8 @@ public class Server {
         javalin.post("/game", this::createGame);
         javalin.put("/game", this::joinGame);
         javalin.delete("/db", this::clear);
+        javalin.post("/analyze", this::analyze);
+        javalin.get("/bot/metrics", this::botMetrics);
 
         javalin.ws("/ws", ws -> {
             ws.onConnect(webSocketHandler);
@@ -114,6 +122,9 @@ public class Server {
         if (result instanceof ListGamesResult r) {
             return r.message();
         }
+        if (result instanceof AnalyzeResult r) {
+            return r.message();
+        }
 
         return null;
     }
@@ -124,6 +135,7 @@ public class Server {
         if (lower.contains("bad request") || lower.contains("invalid")) return 400;
         if (lower.contains("unauthorized")) return 401;
         if (lower.contains("already taken")) return 403;
+        if (lower.contains("busy") || lower.contains("timed out")) return 503;
         return 500;
     }
 
@@ -217,6 +229,29 @@ public class Server {
         }
     }
 
+    private void analyze(@NotNull Context ctx) {
+        try {
+            String authToken = getAuthToken(ctx);
+            AnalyzeRequest req = gson.fromJson(ctx.body(), AnalyzeRequest.class);
+
+            // The search runs on the analysis pool, so the request thread isn't held while it thinks
+            ctx.future(() -> analysisService.analyzeAsync(req, authToken).thenAccept(result ->
+                    handleResult(ctx, result, () -> {
+                        ctx.status(200);
+                        ctx.contentType("application/json");
+                        ctx.result(gson.toJson(result));
+                    })));
+        } catch (Exception e) {
+            sendErrorResponse(ctx, 500, e.getMessage());
+        }
+    }
+
+    private void botMetrics(@NotNull Context ctx) {
+        ctx.status(200);
+        ctx.contentType("application/json");
+        ctx.result(gson.toJson(botService.metrics()));
+    }
+
     public int run(int desiredPort) {
         javalin.start(desiredPort);
         return javalin.port();
@@ -224,5 +259,7 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        analysisService.close();
+        botService.close();
     }
 }
\ No newline at end of file
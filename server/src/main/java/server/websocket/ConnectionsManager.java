@@ -7,18 +7,18 @@ import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ConnectionsManager {
-    private final ConcurrentHashMap<Integer, ArrayList<Session>> connections = new ConcurrentHashMap<>();
+    // Copy-on-write, as bot moves are broadcast from the bot threads while players connect and leave
+    private final ConcurrentHashMap<Integer, CopyOnWriteArrayList<Session>> connections = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<Session, Integer> sessionToGame = new ConcurrentHashMap<>(); // for removal
     private final ConcurrentHashMap<Integer, ChessGame>  gameToConnection = new ConcurrentHashMap<>();
 
     private final Gson gson = new Gson();
     public void add(Session session, int gameID) {
-        connections.putIfAbsent(gameID, new ArrayList<>());
-        connections.get(gameID).add(session);
+        connections.computeIfAbsent(gameID, id -> new CopyOnWriteArrayList<>()).add(session);
         sessionToGame.put(session, gameID);
         gameToConnection.putIfAbsent(gameID, new ChessGame());
     }
@@ -26,7 +26,7 @@ public class ConnectionsManager {
     public void remove(Session session) {
         Integer gameID = sessionToGame.remove(session);
         if (gameID != null) {
-            ArrayList<Session> sessions = connections.get(gameID);
+            CopyOnWriteArrayList<Session> sessions = connections.get(gameID);
             if (sessions != null) {
                 sessions.remove(session);
                 if (sessions.isEmpty()) {
@@ -39,11 +39,11 @@ public class ConnectionsManager {
     public void broadcastToGame(int gameID, Session excludeSession, ServerMessage message) throws IOException {
         String msg = new Gson().toJson(message);
 
-        ArrayList<Session> sessions = connections.get(gameID);
+        CopyOnWriteArrayList<Session> sessions = connections.get(gameID);
         if (sessions != null) {
             for (Session session : sessions) {
                 if (session.isOpen() && !session.equals(excludeSession)) {
-                    session.getRemote().sendString(msg);
+                    send(session, msg);
                 }
             }
         }
@@ -52,6 +52,13 @@ public class ConnectionsManager {
     public void sendToSession(Session session, ServerMessage message) throws IOException {
         if (session.isOpen()) {
             String msg = new Gson().toJson(message);
+            send(session, msg);
+        }
+    }
+
+    // Jetty allows one blocking send per session at a time
+    private void send(Session session, String msg) throws IOException {
+        synchronized (session) {
             session.getRemote().sendString(msg);
         }
     }
@@ -11,21 +11,25 @@ import models.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.commands.*;
 import websocket.messages.*;
+import service.BotService;
 import service.GameService;
 import service.UserService;
 
 import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
 
 public class WebSocketManager implements WsConnectHandler, WsMessageHandler, WsCloseHandler {
 
     private final ConnectionsManager connections = new ConnectionsManager();
     private final GameService gameService;
     private final UserService userService;
+    private final BotService botService;
     private final Gson gson = new Gson();
 
-    public WebSocketManager(GameService gameService, UserService userService) {
+    public WebSocketManager(GameService gameService, UserService userService, BotService botService) {
         this.gameService = gameService;
         this.userService = userService;
+        this.botService = botService;
     }
 
     @Override
@@ -106,6 +110,11 @@ public class WebSocketManager implements WsConnectHandler, WsMessageHandler, WsC
 
         NotificationMessage notification = new NotificationMessage(joinMessage);
         connections.broadcastToGame(gameID, session, notification);
+
+        // The engine moves first when it plays white
+        if (GameService.isBotTurn(game)) {
+            requestBotMove(gameID);
+        }
     }
 
     private void handleMakeMove(String message, String username, Session session) throws IOException {
@@ -130,18 +139,10 @@ public class WebSocketManager implements WsConnectHandler, WsMessageHandler, WsC
             );
             connections.broadcastToGame(gameID, session, moveNotif); // excludes mover
 
-            ChessGame.TeamColor opponentColor = updatedGame.game().getTeamTurn();
-
-            if (updatedGame.game().isInCheckmate(opponentColor)) {
-                String winner = opponentColor == ChessGame.TeamColor.WHITE ? "Black" : "White";
-                NotificationMessage notif = new NotificationMessage("Checkmate! " + winner + " wins!");
-                connections.broadcastToGame(gameID, null, notif);
-            } else if (updatedGame.game().isInStalemate(opponentColor)) {
-                NotificationMessage notif = new NotificationMessage("Stalemate! Game is a draw.");
-                connections.broadcastToGame(gameID, null, notif);
-            } else if (updatedGame.game().isInCheck(opponentColor)) {
-                NotificationMessage notif = new NotificationMessage("Check!");
-                connections.broadcastToGame(gameID, null, notif);
+            broadcastGameState(gameID, updatedGame.game());
+
+            if (GameService.isBotTurn(updatedGame)) {
+                requestBotMove(gameID);
             }
 
         } catch (Exception e) {
@@ -149,6 +150,51 @@ public class WebSocketManager implements WsConnectHandler, WsMessageHandler, WsC
         }
     }
 
+    private void broadcastGameState(int gameID, ChessGame game) throws IOException {
+        ChessGame.TeamColor opponentColor = game.getTeamTurn();
+
+        String message = switch (game.getGameStatus()) {
+            case CHECKMATE -> "Checkmate! " + (opponentColor == ChessGame.TeamColor.WHITE ? "Black" : "White") + " wins!";
+            case STALEMATE -> "Stalemate! Game is a draw.";
+            case THREEFOLD_REPETITION -> "Threefold repetition! Game is a draw.";
+            case FIFTY_MOVE_RULE -> "Fifty-move rule! Game is a draw.";
+            case INSUFFICIENT_MATERIAL -> "Insufficient material! Game is a draw.";
+            case CHECK -> "Check!";
+            case IN_PROGRESS -> null;
+        };
+        if (message != null) {
+            connections.broadcastToGame(gameID, null, new NotificationMessage(message));
+        }
+    }
+
+    /**
+     * Hands the engine's reply off to the bot threads; it's broadcast from there when it's ready
+     */
+    private void requestBotMove(int gameID) {
+        botService.playReply(gameID).whenComplete((reply, failure) -> {
+            try {
+                if (failure != null) {
+                    String reason = failure instanceof RejectedExecutionException
+                            ? "the server is busy" : failure.getMessage();
+                    connections.broadcastToGame(gameID, null,
+                            new NotificationMessage("The engine couldn't move: " + reason));
+                    return;
+                }
+                if (reply == null) {
+                    return;
+                }
+                ChessGame game = reply.game().game();
+                connections.broadcastToGame(gameID, null,
+                        new LoadGameMessage(GameService.BOT_USERNAME, null, gameID, game));
+                connections.broadcastToGame(gameID, null,
+                        new NotificationMessage(GameService.BOT_USERNAME + " moved " + formatMove(reply.move())));
+                broadcastGameState(gameID, game);
+            } catch (IOException e) {
+                System.out.println("Failed to send bot move: " + e.getMessage());
+            }
+        });
+    }
+
     private void handleLeave(UserGameCommand command, String username, Session session) throws IOException {
         int gameID = command.getGameID();
         NotificationMessage notification;
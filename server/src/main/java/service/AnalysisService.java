@@ -0,0 +1,251 @@
+package service;
+
+import chess.ChessGame;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import engine.Engine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import models.AnalyzeRequest;
+import models.AnalyzeResult;
+import models.AuthData;
+import models.GameData;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the engine on positions for the /analyze endpoint.
+ * <p>
+ * Searches run on a fixed number of worker threads, each with its own engine,
+ * behind a bounded queue; when the queue is full requests are turned away instead
+ * of piling up. Every request has a deadline, which bounds both the search and
+ * how long the caller waits for it.
+ * <p>
+ * Finished results are cached by Zobrist key, together with the keys of the earlier
+ * positions the game could still repeat, and reused for any later request that
+ * doesn't ask for a deeper search; a shallower result never replaces a deeper one.
+ * Requests for a position that is already being searched at least as deep and for
+ * at least as long wait for that search instead of starting another one.
+ */
+public class AnalysisService implements AutoCloseable {
+    public static final int DEFAULT_DEPTH = 10;
+    public static final int MAX_DEPTH = 20;
+    public static final int DEFAULT_TIME_MILLIS = 1_000;
+    public static final int MAX_TIME_MILLIS = 10_000;
+
+    private static final int HASH_MEGABYTES = 16;
+    private static final int LINE_PLIES = 12;
+    // How long past its time budget a caller waits, to cover queueing behind other searches
+    private static final long GRACE_MILLIS = 500;
+
+    private final DataAccess dao;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(() -> new Engine(1, HASH_MEGABYTES));
+    private final Map<Long, AnalyzeResult> cache;
+    private final Map<Long, Search> running = new ConcurrentHashMap<>();
+    private final AtomicLong searches = new AtomicLong();
+
+    public AnalysisService(DataAccess dao) {
+        this(dao, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64, 4096);
+    }
+
+    /**
+     * @param dao           where games are looked up by ID
+     * @param threads       searches that can run at once
+     * @param queueCapacity searches that can wait for a thread before requests are turned away
+     * @param cacheSize     results to keep, least recently used first out
+     */
+    public AnalysisService(DataAccess dao, int threads, int queueCapacity, int cacheSize) {
+        this.dao = dao;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "analysis-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, AnalyzeResult> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Analyzes a position, waiting for the result
+     */
+    public AnalyzeResult analyze(AnalyzeRequest request, String authToken) {
+        return analyzeAsync(request, authToken).join();
+    }
+
+    /**
+     * Analyzes a position without blocking the caller
+     *
+     * @return a future that completes with the result, or with an error result if the
+     * request is invalid, the server is busy or the deadline passes. It never completes
+     * exceptionally for those.
+     */
+    public CompletableFuture<AnalyzeResult> analyzeAsync(AnalyzeRequest request, String authToken) {
+        try {
+            if (authToken == null || authToken.trim().isEmpty()) {
+                return error("Error: unauthorized");
+            }
+            AuthData authData = dao.getAuth(authToken);
+            if (authData == null) {
+                return error("Error: unauthorized");
+            }
+            if (request == null) {
+                return error("Error: bad request");
+            }
+
+            ChessGame game;
+            if (request.fen() != null) {
+                try {
+                    game = ChessGame.fromFen(request.fen());
+                } catch (IllegalArgumentException e) {
+                    return error("Error: bad request: " + e.getMessage());
+                }
+            } else if (request.gameID() != null) {
+                GameData gameData = dao.getGame(request.gameID());
+                if (gameData == null) {
+                    return error("Error: bad request");
+                }
+                // A snapshot, as the stored game can change while it is being searched; it
+                // keeps the move history so repetitions are scored as draws
+                game = gameData.game().copy();
+            } else {
+                return error("Error: bad request");
+            }
+
+            int depth = request.depth() == null ? DEFAULT_DEPTH : request.depth();
+            int timeMillis = request.timeMillis() == null ? DEFAULT_TIME_MILLIS : request.timeMillis();
+            if (depth < 1 || depth > MAX_DEPTH || timeMillis < 1 || timeMillis > MAX_TIME_MILLIS) {
+                return error("Error: bad request");
+            }
+            return analyze(game, depth, timeMillis);
+        } catch (DataAccessException e) {
+            return error("Error: " + e.getMessage());
+        }
+    }
+
+    private CompletableFuture<AnalyzeResult> analyze(ChessGame game, int depth, int timeMillis) {
+        long key = cacheKey(game);
+        AnalyzeResult cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        // A forced mate won't change with a deeper search
+        if (cached != null && (cached.depth() >= depth || cached.mateIn() != 0)) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        // A shallower or shorter search still runs for whoever is waiting on it, but
+        // later requests attach to this one
+        Search fresh = new Search(depth, timeMillis, new CompletableFuture<>());
+        Search search = running.compute(key,
+                (k, current) -> current != null && current.covers(depth, timeMillis) ? current : fresh);
+        if (search == fresh) {
+            startSearch(key, fresh, game);
+        }
+        // Each caller gets its own copy so one giving up doesn't cancel the search for the others
+        return search.result().copy().completeOnTimeout(AnalyzeResult.error("Error: analysis timed out"),
+                timeMillis + GRACE_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    // The search scores a return to an earlier position as a draw, so the same position
+    // reached through different moves can get a different result
+    private static long cacheKey(ChessGame game) {
+        long key = game.zobristKey();
+        for (long earlier : game.repeatablePositionKeys()) {
+            key = key * 0x9E3779B97F4A7C15L + earlier;
+        }
+        return key;
+    }
+
+    private void startSearch(long key, Search search, ChessGame game) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(search.timeMillis());
+        try {
+            executor.execute(() -> {
+                try {
+                    finish(key, search, search(game, search.depth(), deadline));
+                } catch (RuntimeException e) {
+                    finish(key, search, AnalyzeResult.error("Error: " + e.getMessage()));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            finish(key, search, AnalyzeResult.error("Error: server busy, try again later"));
+        }
+    }
+
+    private void finish(long key, Search search, AnalyzeResult result) {
+        // Cached and no longer running before any caller sees it, so a request made right
+        // after doesn't attach to the finished search
+        if (result.message() == null) {
+            synchronized (cache) {
+                cache.merge(key, result, (cached, found) -> found.depth() >= cached.depth() ? found : cached);
+            }
+        }
+        running.remove(key, search);
+        search.result().complete(result);
+    }
+
+    private AnalyzeResult search(ChessGame game, int depth, long deadline) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return AnalyzeResult.error("Error: analysis timed out");
+        }
+        searches.incrementAndGet();
+
+        Engine engine = engines.get();
+        SearchResult result = engine.search(game, SearchLimits.depth(depth).withTime(Duration.ofNanos(remaining)));
+        boolean white = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        return new AnalyzeResult(
+                game.toFen(),
+                result.move(),
+                result.move() == null ? List.of() : engine.principalVariation(game, LINE_PLIES),
+                white ? result.score() : -result.score(),
+                white ? result.movesToMate() : -result.movesToMate(),
+                result.depth(),
+                result.nodes(),
+                null);
+    }
+
+    /**
+     * A search in progress, with the limits it was started with
+     */
+    private record Search(int depth, int timeMillis, CompletableFuture<AnalyzeResult> result) {
+
+        // Whether waiting for this search is as good as starting one with these limits
+        boolean covers(int depth, int timeMillis) {
+            return this.depth >= depth && this.timeMillis >= timeMillis;
+        }
+    }
+
+    private static CompletableFuture<AnalyzeResult> error(String message) {
+        return CompletableFuture.completedFuture(AnalyzeResult.error(message));
+    }
+
+    /**
+     * @return the number of searches started, as opposed to requests answered
+     */
+    long searches() {
+        return searches.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
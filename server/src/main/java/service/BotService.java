@@ -0,0 +1,177 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import dataaccess.DataAccessException;
+import engine.Engine;
+import engine.SearchLimits;
+import engine.SearchResult;
+import models.GameData;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays the engine's side of bot games.
+ * <p>
+ * Replies are searched on a fixed number of worker threads, each with its own engine,
+ * behind a bounded queue, so the WebSocket threads only ever hand work off. A reply is
+ * applied through {@link GameService#makeMove} like any other move. At most one reply
+ * per game is queued or thinking at a time.
+ */
+public class BotService implements AutoCloseable {
+    public static final Duration DEFAULT_THINK_TIME = Duration.ofSeconds(1);
+
+    private static final int HASH_MEGABYTES = 16;
+
+    private final GameService gameService;
+    private final SearchLimits limits;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Engine> engines = ThreadLocal.withInitial(() -> new Engine(1, HASH_MEGABYTES));
+    private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong moves = new AtomicLong();
+    private final AtomicLong totalThinkNanos = new AtomicLong();
+    private final AtomicLong maxThinkNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BotService(GameService gameService) {
+        this(gameService, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), 64,
+                SearchLimits.time(DEFAULT_THINK_TIME));
+    }
+
+    /**
+     * @param gameService   where games are loaded and the engine's moves applied
+     * @param threads       replies that can be searched at once
+     * @param queueCapacity replies that can wait for a thread before requests are turned away
+     * @param limits        how long the engine thinks about each move
+     */
+    public BotService(GameService gameService, int threads, int queueCapacity, SearchLimits limits) {
+        this.gameService = gameService;
+        this.limits = limits;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "bot-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Has the engine move in a game if it is its turn, without blocking the caller
+     *
+     * @return a future that completes with the engine's move and the game after it, or with null
+     * if there was nothing to do: it isn't the engine's turn, the game is over or a reply
+     * is already on its way. It completes exceptionally with a RejectedExecutionException
+     * when the queue is full.
+     */
+    public CompletableFuture<Reply> playReply(int gameID) {
+        if (!pending.add(gameID)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // The game leaves pending before the future completes, so a move the player makes
+        // as soon as they see the reply can queue the next one
+        CompletableFuture<Reply> reply = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    Reply played = play(gameID);
+                    pending.remove(gameID);
+                    reply.complete(played);
+                } catch (Exception e) {
+                    pending.remove(gameID);
+                    reply.completeExceptionally(e);
+                }
+            });
+            maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException e) {
+            pending.remove(gameID);
+            rejected.incrementAndGet();
+            reply.completeExceptionally(e);
+        }
+        return reply;
+    }
+
+    private Reply play(int gameID) throws DataAccessException, InvalidMoveException {
+        GameData game = gameService.getGame(gameID);
+        if (!GameService.isBotTurn(game)) {
+            return null;
+        }
+
+        // A snapshot, as the stored game can change while the engine thinks. It keeps the
+        // move history so the engine can see repetitions coming.
+        ChessGame position = game.game().copy();
+        SearchResult result = engines.get().search(position, limits);
+        recordThinkTime(result.elapsedNanos());
+
+        ChessMove move = result.move();
+        if (move == null) {
+            return null;
+        }
+        try {
+            return new Reply(move, gameService.makeMove(gameID, move, GameService.BOT_USERNAME));
+        } catch (InvalidMoveException e) {
+            // The game ended while the engine was thinking (a resignation)
+            if (gameService.getGame(gameID).game().isGameOver()) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @param move the engine's move
+     * @param game the game after it
+     */
+    public record Reply(ChessMove move, GameData game) {}
+
+    private void recordThinkTime(long nanos) {
+        moves.incrementAndGet();
+        totalThinkNanos.addAndGet(nanos);
+        maxThinkNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return a snapshot of how the bot is keeping up
+     */
+    public Metrics metrics() {
+        long count = moves.get();
+        return new Metrics(
+                count,
+                count == 0 ? 0 : totalThinkNanos.get() / count / 1_000_000,
+                maxThinkNanos.get() / 1_000_000,
+                executor.getActiveCount(),
+                executor.getQueue().size(),
+                maxQueueDepth.get(),
+                rejected.get());
+    }
+
+    /**
+     * @param moves              moves the engine has searched
+     * @param averageThinkMillis average search time per move
+     * @param maxThinkMillis     longest search for a single move
+     * @param thinking           replies being searched right now
+     * @param queueDepth         replies waiting for a thread right now
+     * @param maxQueueDepth      most replies that have waited at once
+     * @param rejected           replies turned away because the queue was full
+     */
+    public record Metrics(long moves, long averageThinkMillis, long maxThinkMillis, int thinking,
+                          int queueDepth, int maxQueueDepth, long rejected) {}
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
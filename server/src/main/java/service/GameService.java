@@ -12,10 +12,24 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 public class GameService {
+    /**
+     * The username the engine plays under in bot games. Nobody can register it.
+     */
+    public static final String BOT_USERNAME = "engine";
+
+    // Games share this many locks by ID, so the locks don't grow with the number of games;
+    // a power of two, as lockFor masks the ID
+    private static final int LOCK_STRIPES = 64;
+
     private final DataAccess dao;
+    // Held while a move or resignation reads a game and writes it back
+    private final Object[] gameLocks = new Object[LOCK_STRIPES];
 
     public GameService(DataAccess dao) {
         this.dao = dao;
+        for (int i = 0; i < gameLocks.length; i++) {
+            gameLocks[i] = new Object();
+        }
     }
 
     public ListGamesResult listGames(String authToken) {
@@ -51,12 +65,24 @@ public class GameService {
                 return new CreateGameResult(-1, "Error: bad request");
             }
 
+            String whiteUsername = null;
+            String blackUsername = null;
+            if (request.botColor() != null) {
+                switch (request.botColor().trim().toUpperCase()) {
+                    case "WHITE" -> whiteUsername = BOT_USERNAME;
+                    case "BLACK" -> blackUsername = BOT_USERNAME;
+                    default -> {
+                        return new CreateGameResult(-1, "Error: bad request");
+                    }
+                }
+            }
+
             int id = Math.abs(UUID.randomUUID().hashCode());
             while (dao.getGame(id) != null) {
                 id = Math.abs(UUID.randomUUID().hashCode());
             }
 
-            GameData game = new GameData(id, null, null, gameName.trim(), new ChessGame());
+            GameData game = new GameData(id, whiteUsername, blackUsername, gameName.trim(), new ChessGame());
             dao.createGame(game);
             return new CreateGameResult(id, null);
         } catch (DataAccessException e) {
@@ -125,9 +151,30 @@ public class GameService {
     }
 
     /**
-     * Make a move in a game (for WebSocket MAKE_MOVE command)
+     * Whether the engine is due to move in a game: it plays one side and it's that side's turn
+     */
+    public static boolean isBotTurn(GameData game) {
+        if (game == null || game.game().isGameOver()) {
+            return false;
+        }
+        String toMove = game.game().getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? game.whiteUsername() : game.blackUsername();
+        return BOT_USERNAME.equals(toMove);
+    }
+
+    /**
+     * Make a move in a game (for WebSocket MAKE_MOVE command, and for the engine in bot games)
+     * <p>
+     * Holds the game's lock, shared with resignGame, as bot moves are applied from their
+     * own threads; moves in most other games go ahead at the same time
      */
     public GameData makeMove(int gameID, ChessMove move, String username) throws DataAccessException, InvalidMoveException {
+        synchronized (lockFor(gameID)) {
+            return applyMove(gameID, move, username);
+        }
+    }
+
+    private GameData applyMove(int gameID, ChessMove move, String username) throws DataAccessException, InvalidMoveException {
         GameData game = dao.getGame(gameID);
         if (game == null) {
             throw new DataAccessException("Game not found");
@@ -158,6 +205,11 @@ public class GameService {
         // Make the move (this will throw InvalidMoveException if invalid)
         chessGame.makeMove(move);
 
+        // Checkmate, stalemate and the draw rules end the game, so it doesn't sit in the database forever
+        if (chessGame.getGameStatus().isOver()) {
+            chessGame.setGameOver(true);
+        }
+
         // Update game in database with the MODIFIED chessGame object
         GameData updatedGame = new GameData(
                 game.gameID(),
@@ -198,6 +250,16 @@ public class GameService {
      * Mark a game as over due to resignation (for WebSocket RESIGN command)
      */
     public void resignGame(int gameID, String username) throws DataAccessException, InvalidMoveException {
+        synchronized (lockFor(gameID)) {
+            applyResignation(gameID, username);
+        }
+    }
+
+    private Object lockFor(int gameID) {
+        return gameLocks[gameID & (LOCK_STRIPES - 1)];
+    }
+
+    private void applyResignation(int gameID, String username) throws DataAccessException, InvalidMoveException {
         GameData game = dao.getGame(gameID);
         if (game == null) {
             throw new DataAccessException("Game not found");
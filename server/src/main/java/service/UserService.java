@@ -20,7 +20,7 @@ public class UserService {
                     request.username().trim().isEmpty() || request.password().trim().isEmpty() || request.email().trim().isEmpty()) {
                 return new RegisterResult(null, null, "Error: bad request");
             }
-            if (dao.getUser(request.username()) != null) {
+            if (dao.getUser(request.username()) != null || request.username().equalsIgnoreCase(GameService.BOT_USERNAME)) {
                 return new RegisterResult(null, null, "Error: already taken");
             }
             String hashedPassword = BCrypt.hashpw(request.password(), BCrypt.gensalt());
@@ -1,6 +1,13 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
 import models.AuthData;
 import models.GameData;
 import models.UserData;
@@ -9,6 +16,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 public class SQLDataAccessTests {
@@ -150,6 +161,176 @@ public class SQLDataAccessTests {
         assertNotNull(retrieved.game());
     }
 
+    @Test
+    @DisplayName("Successful Get Game - State Survives Round Trip")
+    public void getGameRoundTrip() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.setGameOver(true);
+        sqlDataAccess.createGame(new GameData(1, "white", "black", "game1", game));
+
+        ChessGame retrieved = sqlDataAccess.getGame(1).game();
+        assertEquals(game, retrieved);
+        assertEquals(ChessGame.TeamColor.BLACK, retrieved.getTeamTurn());
+        assertTrue(retrieved.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Successful Get Game - Move History Survives Round Trip")
+    public void getGameRoundTripHistory() throws DataAccessException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        ChessMove e4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove e5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+        game.makeMove(e4);
+        game.makeMove(e5);
+        game.undoMove();
+        sqlDataAccess.createGame(new GameData(1, "white", "black", "game1", game));
+
+        ChessGame retrieved = sqlDataAccess.getGame(1).game();
+        assertEquals(List.of(e4), retrieved.getMoveHistory());
+        assertEquals(e5, retrieved.redoMove(), "The undone move should still be there to redo");
+        retrieved.goToPly(0);
+        assertEquals(new ChessGame(), retrieved);
+    }
+
+    @Test
+    @DisplayName("Successful List Games - JSON Games Survive Migration")
+    public void listGamesAfterJsonMigration() throws DataAccessException, SQLException, InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.setGameOver(true);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (var stmt = conn.prepareStatement("ALTER TABLE games MODIFY game TEXT NOT NULL")) {
+                stmt.executeUpdate();
+            }
+            String sql = "INSERT INTO games (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
+            try (var stmt = conn.prepareStatement(sql)) {
+                stmt.setInt(1, 1);
+                stmt.setString(2, "white");
+                stmt.setString(3, "black");
+                stmt.setString(4, "json game");
+                stmt.setString(5, legacyJson(game));
+                stmt.executeUpdate();
+
+                stmt.setInt(1, 2);
+                stmt.setString(4, "json null game");
+                stmt.setString(5, "null");
+                stmt.executeUpdate();
+            }
+        }
+
+        SQLDataAccess migrated = new SQLDataAccess();
+        List<GameData> games = migrated.listGames();
+        assertEquals(2, games.size());
+
+        GameData jsonGame = games.stream().filter(g -> g.gameID() == 1).findFirst().orElseThrow();
+        assertEquals("json game", jsonGame.gameName());
+        assertEquals(game, jsonGame.game());
+        assertEquals(ChessGame.TeamColor.BLACK, jsonGame.game().getTeamTurn());
+        assertTrue(jsonGame.game().isGameOver());
+        assertNull(migrated.getGame(2).game());
+    }
+
+    @Test
+    @DisplayName("Successful List Games - Interrupted Migration Finishes On Restart")
+    public void listGamesAfterInterruptedMigration() throws DataAccessException, SQLException, InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null));
+        ChessGame second = new ChessGame();
+
+        // As a migration that died after adding the new column and converting one row leaves it
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (var stmt = conn.prepareStatement("ALTER TABLE games MODIFY game TEXT NOT NULL")) {
+                stmt.executeUpdate();
+            }
+            try (var stmt = conn.prepareStatement("ALTER TABLE games ADD COLUMN game_codec BLOB NULL")) {
+                stmt.executeUpdate();
+            }
+            insertJsonGame(conn, 1, legacyJson(first));
+            insertJsonGame(conn, 2, legacyJson(second));
+            try (var stmt = conn.prepareStatement("UPDATE games SET game_codec = ? WHERE gameID = 1")) {
+                stmt.setBytes(1, new byte[]{1, 2, 3});
+                stmt.executeUpdate();
+            }
+        }
+
+        SQLDataAccess migrated = new SQLDataAccess();
+        assertEquals(first, migrated.getGame(1).game());
+        assertEquals(second, migrated.getGame(2).game());
+        try (Connection conn = DatabaseManager.getConnection();
+             var columns = conn.getMetaData().getColumns(conn.getCatalog(), null, "games", "game_codec")) {
+            assertFalse(columns.next(), "The temporary column should be gone");
+        }
+    }
+
+    @Test
+    @DisplayName("Failed Migration - Unreadable JSON Leaves Games For The Next Startup")
+    public void migrationKeepsJsonWhenARowIsUnreadable() throws DataAccessException, SQLException {
+        ChessGame game = new ChessGame();
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (var stmt = conn.prepareStatement("ALTER TABLE games MODIFY game TEXT NOT NULL")) {
+                stmt.executeUpdate();
+            }
+            insertJsonGame(conn, 1, legacyJson(game));
+            insertJsonGame(conn, 2, "{\"chessBoard\": 7}");
+        }
+        assertThrows(DataAccessException.class, SQLDataAccess::new);
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            try (var stmt = conn.prepareStatement("UPDATE games SET game = ? WHERE gameID = 2")) {
+                stmt.setString(1, legacyJson(game));
+                stmt.executeUpdate();
+            }
+        }
+        SQLDataAccess migrated = new SQLDataAccess();
+        assertEquals(game, migrated.getGame(1).game());
+        assertEquals(game, migrated.getGame(2).game());
+    }
+
+    private static void insertJsonGame(Connection conn, int gameID, String json) throws SQLException {
+        String sql = "INSERT INTO games (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
+        try (var stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            stmt.setString(2, "white");
+            stmt.setString(3, "black");
+            stmt.setString(4, "json game " + gameID);
+            stmt.setString(5, json);
+            stmt.executeUpdate();
+        }
+    }
+
+    // A game as Gson wrote the original classes: an 8x8 ChessPiece array indexed [row - 1][column - 1]
+    private static String legacyJson(ChessGame game) {
+        JsonArray rows = new JsonArray();
+        for (int row = 1; row <= 8; row++) {
+            JsonArray columns = new JsonArray();
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece == null) {
+                    columns.add(JsonNull.INSTANCE);
+                    continue;
+                }
+                JsonObject saved = new JsonObject();
+                saved.addProperty("teamColor", piece.getTeamColor().name());
+                saved.addProperty("pieceType", piece.getPieceType().name());
+                columns.add(saved);
+            }
+            rows.add(columns);
+        }
+        JsonObject board = new JsonObject();
+        board.add("board", rows);
+
+        JsonObject saved = new JsonObject();
+        saved.addProperty("currentTeam", game.getTeamTurn().name());
+        saved.add("chessBoard", board);
+        saved.add("blackPiecesPositions", new JsonArray());
+        saved.add("whitePiecesPositions", new JsonArray());
+        saved.addProperty("gameOver", game.isGameOver());
+        return saved.toString();
+    }
+
     @Test
     @DisplayName("Failed Get Game - Game Does Not Exist")
     public void getGameNegative() throws DataAccessException {
@@ -0,0 +1,205 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import models.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServiceTest {
+    private static final String MATE_IN_ONE = "6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1";
+
+    private DataAccess dataAccess;
+    private AnalysisService analysisService;
+    private String validAuthToken;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        analysisService = new AnalysisService(dataAccess, 2, 16, 64);
+        dataAccess.clear();
+
+        validAuthToken = "analysis-token";
+        dataAccess.createAuth(new AuthData(validAuthToken, "testuser"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisService.close();
+    }
+
+    @Test
+    void analyzeFenPositive() {
+        AnalyzeResult result = analysisService.analyze(new AnalyzeRequest(MATE_IN_ONE, null, 3, null), validAuthToken);
+
+        assertNull(result.message(), "Should not have error message");
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestMove());
+        assertEquals(1, result.mateIn(), "White should mate in one");
+        assertFalse(result.line().isEmpty(), "Should return the expected line");
+        assertEquals(result.bestMove(), result.line().get(0), "Line should start with the best move");
+    }
+
+    @Test
+    void analyzeScoreIsFromWhitesPointOfView() {
+        // Same mate, but black is the one delivering it
+        String blackMates = "r5k1/8/8/8/8/8/5PPP/6K1 b - - 0 1";
+        AnalyzeResult result = analysisService.analyze(new AnalyzeRequest(blackMates, null, 3, null), validAuthToken);
+
+        assertNull(result.message());
+        assertEquals(-1, result.mateIn(), "Black should mate in one");
+        assertTrue(result.score() < 0, "Score should favor black");
+    }
+
+    @Test
+    void analyzeGamePositive() throws DataAccessException {
+        dataAccess.createGame(new GameData(42, null, null, "Analysis game", new ChessGame()));
+
+        AnalyzeResult result = analysisService.analyze(new AnalyzeRequest(null, 42, 2, null), validAuthToken);
+
+        assertNull(result.message(), "Should not have error message");
+        assertNotNull(result.bestMove(), "Should suggest a move");
+        assertEquals(2, result.depth());
+    }
+
+    @Test
+    void analyzeNegativeUnauthorized() {
+        AnalyzeResult result = analysisService.analyze(new AnalyzeRequest(MATE_IN_ONE, null, 3, null), "invalid-token");
+
+        assertNotNull(result.message(), "Should have error message");
+        assertTrue(result.message().contains("unauthorized"));
+        assertEquals(0, analysisService.searches(), "Should not search");
+    }
+
+    @Test
+    void analyzeNegativeBadRequest() {
+        AnalyzeResult noPosition = analysisService.analyze(new AnalyzeRequest(null, null, 3, null), validAuthToken);
+        AnalyzeResult badFen = analysisService.analyze(new AnalyzeRequest("not a fen", null, 3, null), validAuthToken);
+        AnalyzeResult noGame = analysisService.analyze(new AnalyzeRequest(null, 12345, 3, null), validAuthToken);
+        AnalyzeResult tooDeep = analysisService.analyze(
+                new AnalyzeRequest(MATE_IN_ONE, null, AnalysisService.MAX_DEPTH + 1, null), validAuthToken);
+
+        for (AnalyzeResult result : List.of(noPosition, badFen, noGame, tooDeep)) {
+            assertNotNull(result.message(), "Should have error message");
+            assertTrue(result.message().contains("bad request"));
+        }
+    }
+
+    @Test
+    void analyzeCachesResults() {
+        AnalyzeRequest request = new AnalyzeRequest(new ChessGame().toFen(), null, 3, null);
+
+        AnalyzeResult first = analysisService.analyze(request, validAuthToken);
+        AnalyzeResult second = analysisService.analyze(request, validAuthToken);
+        AnalyzeResult shallower = analysisService.analyze(new AnalyzeRequest(request.fen(), null, 2, null), validAuthToken);
+
+        assertNull(first.message());
+        assertEquals(first, second, "Should return the cached result");
+        assertEquals(first, shallower, "A deeper cached result should answer a shallower request");
+        assertEquals(1, analysisService.searches(), "Should only search once");
+
+        analysisService.analyze(new AnalyzeRequest(request.fen(), null, 4, null), validAuthToken);
+        assertEquals(2, analysisService.searches(), "A deeper request should search again");
+    }
+
+    @Test
+    void analyzeDoesNotShareResultsAcrossHistories() throws Exception {
+        // Back at the start position, but with four positions the game could repeat
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null));
+        dataAccess.createGame(new GameData(42, null, null, "Analysis game", game));
+        assertEquals(new ChessGame().zobristKey(), game.zobristKey());
+
+        analysisService.analyze(new AnalyzeRequest(new ChessGame().toFen(), null, 2, null), validAuthToken);
+        AnalyzeResult first = analysisService.analyze(new AnalyzeRequest(null, 42, 2, null), validAuthToken);
+        assertEquals(2, analysisService.searches(), "The game's history should keep the FEN's result from answering");
+
+        AnalyzeResult second = analysisService.analyze(new AnalyzeRequest(null, 42, 2, null), validAuthToken);
+        assertEquals(first, second, "Should return the cached result for the same history");
+        assertEquals(2, analysisService.searches());
+    }
+
+    @Test
+    void analyzeCoalescesConcurrentRequests() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+        List<CompletableFuture<AnalyzeResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(analysisService.analyzeAsync(new AnalyzeRequest(fen, null, 4, null), validAuthToken));
+        }
+
+        AnalyzeResult first = futures.get(0).join();
+        assertNull(first.message());
+        for (CompletableFuture<AnalyzeResult> future : futures) {
+            assertEquals(first, future.join(), "Every request should get the same search's result");
+        }
+        assertEquals(1, analysisService.searches(), "Should only search once");
+    }
+
+    @Test
+    void analyzeDoesNotCoalesceOntoShallowerSearch() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+
+        CompletableFuture<AnalyzeResult> shallow =
+                analysisService.analyzeAsync(new AnalyzeRequest(fen, null, 1, null), validAuthToken);
+        CompletableFuture<AnalyzeResult> deep =
+                analysisService.analyzeAsync(new AnalyzeRequest(fen, null, 4, null), validAuthToken);
+
+        assertEquals(1, shallow.join().depth());
+        assertEquals(4, deep.join().depth(), "A deeper request should not get the shallower search's result");
+        assertEquals(2, analysisService.searches());
+
+        AnalyzeResult cached = analysisService.analyze(new AnalyzeRequest(fen, null, 4, null), validAuthToken);
+        assertEquals(deep.join(), cached, "The shallower result should not replace the deeper one in the cache");
+        assertEquals(2, analysisService.searches());
+    }
+
+    @Test
+    void analyzeNegativeServerBusy() {
+        AnalysisService tiny = new AnalysisService(dataAccess, 1, 1, 64);
+        try {
+            // One search running and one queued; the rest are turned away
+            List<CompletableFuture<AnalyzeResult>> futures = new ArrayList<>();
+            String[] fens = {
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+                    "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1",
+                    "rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b - - 0 1"};
+            for (String fen : fens) {
+                futures.add(tiny.analyzeAsync(new AnalyzeRequest(fen, null, 8, 300), validAuthToken));
+            }
+
+            AnalyzeResult last = futures.get(fens.length - 1).join();
+            assertNotNull(last.message(), "Should have error message");
+            assertTrue(last.message().contains("busy"));
+        } finally {
+            tiny.close();
+        }
+    }
+
+    @Test
+    void analyzeRespectsDeadline() {
+        String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1";
+        long start = System.nanoTime();
+
+        AnalyzeResult result = analysisService.analyze(
+                new AnalyzeRequest(fen, null, AnalysisService.MAX_DEPTH, 200), validAuthToken);
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNull(result.message(), "The search should stop at the deadline with what it has");
+        assertNotNull(result.bestMove());
+        assertTrue(elapsedMillis < 1_000, "Analysis took " + elapsedMillis + "ms");
+    }
+}
@@ -0,0 +1,142 @@
+package service;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import engine.SearchLimits;
+import models.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotServiceTest {
+    private DataAccess dataAccess;
+    private GameService gameService;
+    private BotService botService;
+
+    @BeforeEach
+    void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        gameService = new GameService(dataAccess);
+        botService = new BotService(gameService, 2, 16, SearchLimits.depth(2));
+        dataAccess.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        botService.close();
+    }
+
+    @Test
+    void playReplyPositive() throws Exception {
+        dataAccess.createGame(new GameData(1, "testuser", GameService.BOT_USERNAME, "Bot game", new ChessGame()));
+        gameService.makeMove(1, new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null), "testuser");
+
+        BotService.Reply reply = botService.playReply(1).join();
+
+        assertNotNull(reply, "The engine should have moved");
+        assertEquals(ChessGame.TeamColor.WHITE, reply.game().game().getTeamTurn(), "Should be the player's turn again");
+        assertEquals(reply.game().game(), dataAccess.getGame(1).game(), "The move should be saved");
+        assertEquals(1, botService.metrics().moves());
+    }
+
+    @Test
+    void playReplyPositiveBotPlaysWhite() throws Exception {
+        dataAccess.createGame(new GameData(1, GameService.BOT_USERNAME, "testuser", "Bot game", new ChessGame()));
+
+        BotService.Reply reply = botService.playReply(1).join();
+
+        assertNotNull(reply, "The engine should make the first move");
+        assertEquals(ChessGame.TeamColor.BLACK, reply.game().game().getTeamTurn());
+    }
+
+    @Test
+    void playReplyFindsMate() throws Exception {
+        dataAccess.createGame(new GameData(1, GameService.BOT_USERNAME, "testuser", "Bot game",
+                ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1")));
+
+        BotService.Reply reply = botService.playReply(1).join();
+
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), reply.move());
+        assertTrue(reply.game().game().isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void playReplyNegativeNotBotsTurn() throws Exception {
+        dataAccess.createGame(new GameData(1, "testuser", GameService.BOT_USERNAME, "Bot game", new ChessGame()));
+        dataAccess.createGame(new GameData(2, "testuser", "otheruser", "Regular game", new ChessGame()));
+
+        assertNull(botService.playReply(1).join(), "It's white's turn");
+        assertNull(botService.playReply(2).join(), "Not a bot game");
+        assertNull(botService.playReply(3).join(), "No such game");
+        assertEquals(new ChessGame(), dataAccess.getGame(1).game(), "Should not have moved");
+        assertEquals(0, botService.metrics().moves(), "Should not search");
+    }
+
+    @Test
+    void playReplyNegativeGameOver() throws Exception {
+        ChessGame game = new ChessGame();
+        game.setGameOver(true);
+        dataAccess.createGame(new GameData(1, GameService.BOT_USERNAME, "testuser", "Bot game", game));
+
+        assertNull(botService.playReply(1).join(), "Should not move in a finished game");
+    }
+
+    @Test
+    void playReplyOnlyOncePerMove() throws Exception {
+        dataAccess.createGame(new GameData(1, GameService.BOT_USERNAME, "testuser", "Bot game", new ChessGame()));
+
+        List<CompletableFuture<BotService.Reply>> replies = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            replies.add(botService.playReply(1));
+        }
+
+        long moved = replies.stream().map(CompletableFuture::join).filter(reply -> reply != null).count();
+        assertEquals(1, moved, "The engine should move exactly once");
+        assertEquals(ChessGame.TeamColor.BLACK, dataAccess.getGame(1).game().getTeamTurn());
+    }
+
+    @Test
+    void playReplyNegativeServerBusy() throws Exception {
+        BotService tiny = new BotService(gameService, 1, 1, SearchLimits.depth(6));
+        try {
+            // One reply thinking and one queued; the rest are turned away
+            List<CompletableFuture<BotService.Reply>> replies = new ArrayList<>();
+            for (int id = 1; id <= 4; id++) {
+                dataAccess.createGame(new GameData(id, GameService.BOT_USERNAME, "testuser", "Bot game " + id,
+                        new ChessGame()));
+                replies.add(tiny.playReply(id));
+            }
+
+            CompletionException e = assertThrows(CompletionException.class, () -> replies.get(3).join());
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertTrue(tiny.metrics().rejected() >= 1);
+            assertTrue(tiny.metrics().maxQueueDepth() <= 1, "The queue should be bounded");
+        } finally {
+            tiny.close();
+        }
+    }
+
+    @Test
+    void metricsTrackThinkTime() throws Exception {
+        dataAccess.createGame(new GameData(1, GameService.BOT_USERNAME, "testuser", "Bot game", new ChessGame()));
+
+        botService.playReply(1).join();
+        BotService.Metrics metrics = botService.metrics();
+
+        assertEquals(1, metrics.moves());
+        assertTrue(metrics.maxThinkMillis() >= metrics.averageThinkMillis());
+        assertEquals(0, metrics.queueDepth(), "Nothing should be waiting");
+    }
+}
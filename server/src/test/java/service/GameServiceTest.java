@@ -1,5 +1,9 @@
 package service;
 
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import models.*;
 import service.GameService;
 import service.UserService;
@@ -128,6 +132,33 @@ class GameServiceTest {
         assertEquals(-1, result.gameID());
     }
 
+    @Test
+    void createGamePositiveBotGame() throws DataAccessException {
+        CreateGameRequest request = new CreateGameRequest("Versus Engine", "black");
+        CreateGameResult result = gameService.createGame(request, validAuthToken);
+
+        assertNull(result.message(), "Should not have error message");
+
+        // The engine takes black, leaving white open
+        GameData game = dataAccess.getGame(result.gameID());
+        assertNull(game.whiteUsername());
+        assertEquals(GameService.BOT_USERNAME, game.blackUsername());
+        assertFalse(GameService.isBotTurn(game), "White moves first");
+
+        JoinGameResult joinResult = gameService.joinGame(new JoinGameRequest("BLACK", result.gameID()), validAuthToken);
+        assertTrue(joinResult.message().contains("already taken"), "The engine's seat should be taken");
+    }
+
+    @Test
+    void createGameNegativeBadBotColor() {
+        CreateGameRequest request = new CreateGameRequest("Versus Engine", "purple");
+        CreateGameResult result = gameService.createGame(request, validAuthToken);
+
+        assertNotNull(result.message());
+        assertTrue(result.message().contains("bad request"));
+        assertEquals(-1, result.gameID());
+    }
+
     @Test
     void createGameNegativeNullToken() {
         CreateGameRequest request = new CreateGameRequest("Game");
@@ -334,4 +365,49 @@ class GameServiceTest {
         assertEquals("testuser", game.whiteUsername());
         assertEquals("user2", game.blackUsername());
     }
-}
\ No newline at end of file
+
+    // Draw Tests
+    @Test
+    void makeMoveEndsGameOnThreefoldRepetition() throws Exception {
+        dataAccess.createGame(new GameData(1, "testuser", "user2", "Shuffle", new ChessGame()));
+        ChessMove whiteOut = new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null);
+        ChessMove blackOut = new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null);
+        ChessMove whiteBack = new ChessMove(ChessPosition.of(3, 6), ChessPosition.of(1, 7), null);
+        ChessMove blackBack = new ChessMove(ChessPosition.of(6, 6), ChessPosition.of(8, 7), null);
+
+        // Knights out and back twice brings the starting position round a third time
+        GameData game = null;
+        for (int i = 0; i < 2; i++) {
+            gameService.makeMove(1, whiteOut, "testuser");
+            gameService.makeMove(1, blackOut, "user2");
+            gameService.makeMove(1, whiteBack, "testuser");
+            game = gameService.makeMove(1, blackBack, "user2");
+        }
+
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, game.game().getGameStatus());
+        assertTrue(dataAccess.getGame(1).game().isGameOver(), "The draw should end the game");
+        assertThrows(InvalidMoveException.class, () -> gameService.makeMove(1, whiteOut, "testuser"));
+    }
+
+    @Test
+    void makeMoveEndsGameOnInsufficientMaterial() throws Exception {
+        dataAccess.createGame(new GameData(1, "testuser", "user2", "Bare kings",
+                ChessGame.fromFen("4k3/8/8/8/8/8/3q4/4K3 w - - 0 1")));
+
+        GameData game = gameService.makeMove(1, new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 4), null), "testuser");
+
+        assertEquals(ChessGame.GameStatus.INSUFFICIENT_MATERIAL, game.game().getGameStatus());
+        assertTrue(game.game().isGameOver());
+    }
+
+    @Test
+    void makeMoveKeepsGameGoingWithMaterialLeft() throws Exception {
+        dataAccess.createGame(new GameData(1, "testuser", "user2", "Rook ending",
+                ChessGame.fromFen("4k3/8/8/8/8/8/3q4/R3K3 w - - 0 1")));
+
+        GameData game = gameService.makeMove(1, new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 4), null), "testuser");
+
+        assertEquals(ChessGame.GameStatus.IN_PROGRESS, game.game().getGameStatus());
+        assertFalse(game.game().isGameOver(), "A rook can still mate");
+    }
+}
@@ -54,6 +54,17 @@ class UserServiceTest {
         assertNull(result.authToken(), "Should not return auth token");
     }
 
+    @Test
+    void registerNegativeBotUsername() throws DataAccessException {
+        // The engine plays bot games under this name
+        RegisterRequest request = new RegisterRequest(GameService.BOT_USERNAME, "password123", "test@email.com");
+        RegisterResult result = userService.register(request);
+
+        assertNotNull(result.message(), "Should have error message");
+        assertTrue(result.message().contains("already taken"), "Should indicate username is taken");
+        assertNull(dataAccess.getUser(GameService.BOT_USERNAME), "User should not be created");
+    }
+
     @Test
     void registerNegativeBadRequest() {
         // Null username
@@ -0,0 +1,134 @@
+package chess;
+
+/**
+ * Precomputed attack masks and square helpers for the bitboard board core.
+ * <p>
+ * Squares are numbered 0-63 with a1 = 0, h1 = 7 and h8 = 63, so a
+ * ChessPosition(row, col) maps to (row - 1) * 8 + (col - 1).
+ */
+final class Bitboards {
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_3 = 0xFFL << 16;
+    static final long RANK_6 = 0xFFL << 40;
+    static final long RANK_8 = 0xFFL << 56;
+    // b1, d1, ..., a2, c2, ...: a1 is a dark square
+    static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+
+    // Ray directions as (row, col) steps. The first four increase the square index.
+    static final int NORTH = 0;
+    static final int EAST = 1;
+    static final int NORTH_EAST = 2;
+    static final int NORTH_WEST = 3;
+    static final int SOUTH = 4;
+    static final int WEST = 5;
+    static final int SOUTH_WEST = 6;
+    static final int SOUTH_EAST = 7;
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {0, 1}, {1, 1}, {1, -1},
+            {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}};
+
+    static final long[] KNIGHT_ATTACKS = new long[64];
+    static final long[] KING_ATTACKS = new long[64];
+    static final long[][] PAWN_ATTACKS = new long[2][64];
+    static final long[][] RAYS = new long[8][64];
+    // Squares strictly between two aligned squares, or 0 if they share no line
+    static final long[][] BETWEEN = new long[64][64];
+    // The full rank, file or diagonal through two aligned squares, or 0
+    static final long[][] LINE = new long[64][64];
+
+    static {
+        int[][] knightOffsets = {
+                {1, 2}, {1, -2}, {-1, 2}, {-1, -2},
+                {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
+
+        for (int sq = 0; sq < 64; sq++) {
+            int row = sq >>> 3;
+            int col = sq & 7;
+
+            for (int[] offset : knightOffsets) {
+                KNIGHT_ATTACKS[sq] |= maskIfOnBoard(row + offset[0], col + offset[1]);
+            }
+            for (int[] direction : DIRECTIONS) {
+                KING_ATTACKS[sq] |= maskIfOnBoard(row + direction[0], col + direction[1]);
+            }
+
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][sq] =
+                    maskIfOnBoard(row + 1, col - 1) | maskIfOnBoard(row + 1, col + 1);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][sq] =
+                    maskIfOnBoard(row - 1, col - 1) | maskIfOnBoard(row - 1, col + 1);
+
+            for (int dir = 0; dir < 8; dir++) {
+                int r = row + DIRECTIONS[dir][0];
+                int c = col + DIRECTIONS[dir][1];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    RAYS[dir][sq] |= 1L << (r * 8 + c);
+                    r += DIRECTIONS[dir][0];
+                    c += DIRECTIONS[dir][1];
+                }
+            }
+        }
+
+        for (int from = 0; from < 64; from++) {
+            for (int dir = 0; dir < 8; dir++) {
+                // Opposite directions differ only in bit 2 (NORTH <-> SOUTH, EAST <-> WEST, ...)
+                int back = dir ^ 4;
+                long line = RAYS[dir][from] | RAYS[back][from] | (1L << from);
+                long ray = RAYS[dir][from];
+                while (ray != 0) {
+                    int to = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    BETWEEN[from][to] = RAYS[dir][from] & RAYS[back][to];
+                    LINE[from][to] = line;
+                }
+            }
+        }
+    }
+
+    private Bitboards() {
+    }
+
+    private static long maskIfOnBoard(int row, int col) {
+        if (row < 0 || row > 7 || col < 0 || col > 7) {
+            return 0L;
+        }
+        return 1L << (row * 8 + col);
+    }
+
+    static int square(ChessPosition position) {
+        return (position.getRow() - 1) * 8 + (position.getColumn() - 1);
+    }
+
+    /**
+     * Attacks along one ray, stopping at (and including) the first occupied square
+     */
+    static long rayAttacks(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers == 0) {
+            return ray;
+        }
+        int blocker = direction < SOUTH
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[direction][blocker];
+    }
+
+    static long rookAttacks(int square, long occupied) {
+        return rayAttacks(NORTH, square, occupied)
+                | rayAttacks(SOUTH, square, occupied)
+                | rayAttacks(EAST, square, occupied)
+                | rayAttacks(WEST, square, occupied);
+    }
+
+    static long bishopAttacks(int square, long occupied) {
+        return rayAttacks(NORTH_EAST, square, occupied)
+                | rayAttacks(NORTH_WEST, square, occupied)
+                | rayAttacks(SOUTH_EAST, square, occupied)
+                | rayAttacks(SOUTH_WEST, square, occupied);
+    }
+
+    static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+}
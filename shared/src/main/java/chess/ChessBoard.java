@@ -1,22 +1,76 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.Collection;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
- * this class will use 0-7 for rows and columns (it will need to translate from 1-8)
+ * <p>
+ * The board is stored as one 64-bit bitboard per piece kind (see {@link Bitboards}
+ * for the square numbering) plus an occupancy mask per team.
+ * <p>
+ * Castling rights and the en passant target are packed into one int:
+ * <pre>
+ * bits 0-3    castling rights (WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE, BLACK_QUEENSIDE)
+ * bits 4-10   en passant target square + 1, 0 if there is none
+ * </pre>
+ * A new board has every castling right. A right only counts while its king and rook
+ * are still on their starting squares, so a board set up piece by piece can castle
+ * exactly when the pieces are where castling needs them.
  */
 public class ChessBoard {
-    ChessPiece[][] board = new ChessPiece[8][8];
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 1 << 1;
+    public static final int BLACK_KINGSIDE = 1 << 2;
+    public static final int BLACK_QUEENSIDE = 1 << 3;
+    public static final int ALL_CASTLING = 0xF;
+
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int UNDO_STATE_SHIFT = 8;
+
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int QUEEN = ChessPiece.PieceType.QUEEN.ordinal();
+    private static final int BISHOP = ChessPiece.PieceType.BISHOP.ordinal();
+    private static final int KNIGHT = ChessPiece.PieceType.KNIGHT.ordinal();
+    private static final int ROOK = ChessPiece.PieceType.ROOK.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    // Rights that survive a move from or to each square; moving a king or rook, or
+    // capturing a rook, clears its rights for good
+    private static final int[] CASTLING_KEPT = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_KEPT, ALL_CASTLING);
+        CASTLING_KEPT[0] &= ~WHITE_QUEENSIDE;
+        CASTLING_KEPT[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_KEPT[7] &= ~WHITE_KINGSIDE;
+        CASTLING_KEPT[56] &= ~BLACK_QUEENSIDE;
+        CASTLING_KEPT[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_KEPT[63] &= ~BLACK_KINGSIDE;
+    }
+
+    long[] pieceBitboards = new long[12];
+    long[] colorOccupancy = new long[2];
+    // Castling rights and en passant target, see above
+    private int state = ALL_CASTLING;
+    // Zobrist key of the piece placement, updated whenever a square changes
+    private long pieceKey;
+    // PieceSquareTables totals, updated whenever a square changes
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
 
     public ChessBoard() {
 
     }
 
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -24,7 +78,11 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        int square = Bitboards.square(position);
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+        }
     }
 
     /**
@@ -35,7 +93,453 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return board[position.getRow() - 1][position.getColumn() - 1];
+        return pieceAt(Bitboards.square(position));
+    }
+
+    /**
+     * @param square the square numbered as in PackedMove, a1 = 0 to h8 = 63
+     * @return the piece on the square, or null if it is empty
+     */
+    public ChessPiece pieceAt(int square) {
+        int index = pieceIndexAt(square);
+        return index < 0 ? null : ChessPiece.ofIndex(index);
+    }
+
+    /**
+     * @return the pieceIndex of whatever sits on the square, or -1 if it is empty
+     */
+    int pieceIndexAt(int square) {
+        long mask = 1L << square;
+        int first;
+        if ((colorOccupancy[0] & mask) != 0) {
+            first = 0;
+        } else if ((colorOccupancy[1] & mask) != 0) {
+            first = 6;
+        } else {
+            return -1;
+        }
+        for (int index = first; index < first + 6; index++) {
+            if ((pieceBitboards[index] & mask) != 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void setSquare(int square, int pieceIndex) {
+        long mask = 1L << square;
+        pieceBitboards[pieceIndex] |= mask;
+        colorOccupancy[pieceIndex / 6] |= mask;
+        pieceKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+        middlegameScore += PieceSquareTables.MIDDLEGAME[pieceIndex][square];
+        endgameScore += PieceSquareTables.ENDGAME[pieceIndex][square];
+        phase += PieceSquareTables.PHASE[pieceIndex];
+    }
+
+    private void unsetSquare(int square, int pieceIndex) {
+        long mask = ~(1L << square);
+        pieceBitboards[pieceIndex] &= mask;
+        colorOccupancy[pieceIndex / 6] &= mask;
+        pieceKey ^= Zobrist.PIECE_SQUARE[pieceIndex][square];
+        middlegameScore -= PieceSquareTables.MIDDLEGAME[pieceIndex][square];
+        endgameScore -= PieceSquareTables.ENDGAME[pieceIndex][square];
+        phase -= PieceSquareTables.PHASE[pieceIndex];
+    }
+
+    private void clearSquare(int square) {
+        int index = pieceIndexAt(square);
+        if (index >= 0) {
+            unsetSquare(square, index);
+        }
+    }
+
+    /**
+     * Plays a move in place without checking that it is legal. Castling is a king
+     * move of two squares and en passant a pawn capture onto the en passant target;
+     * both move the extra piece too. The returned token records what was captured and
+     * the castling and en passant state before the move, and must be handed back to
+     * unmakeMove, in reverse order, to restore the board exactly.
+     *
+     * @param move the move to play; there must be a piece on its start square
+     * @return an undo token for unmakeMove
+     */
+    public int makeMove(ChessMove move) {
+        return makeMove(PackedMove.of(move));
+    }
+
+    /**
+     * Plays a packed move in place, as makeMove(ChessMove) does; any flags on it are ignored
+     *
+     * @param move the move packed as PackedMove describes
+     * @return an undo token for unmakeMove
+     */
+    public int makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = pieceIndexAt(from);
+        int captured = pieceIndexAt(to);
+        int type = moving % 6;
+        int undoState = state << UNDO_STATE_SHIFT;
+
+        int capturedSquare = to;
+        if (type == PAWN && to == enPassantSquare()) {
+            capturedSquare = enPassantVictim(to);
+            captured = pieceIndexAt(capturedSquare);
+        }
+        if (captured >= 0) {
+            unsetSquare(capturedSquare, captured);
+        }
+        unsetSquare(from, moving);
+        setSquare(to, placedPieceIndex(moving, PackedMove.promotion(move)));
+        if (type == KING && (to - from == 2 || from - to == 2)) {
+            moveCastlingRook(from, to, false);
+        }
+
+        // Clears the en passant target along with any castling rights the move gives up
+        state &= CASTLING_KEPT[from] & CASTLING_KEPT[to];
+        if (type == PAWN && (to - from == 16 || from - to == 16)) {
+            setEnPassantSquare((from + to) >>> 1);
+        }
+
+        return moving | ((captured + 1) << 4) | undoState;
+    }
+
+    /**
+     * Takes back a move played with makeMove
+     *
+     * @param move the move that was played
+     * @param undo the token makeMove returned for it
+     */
+    public void unmakeMove(ChessMove move, int undo) {
+        unmakeMove(PackedMove.of(move), undo);
+    }
+
+    /**
+     * Takes back a packed move played with makeMove
+     *
+     * @param move the move that was played
+     * @param undo the token makeMove returned for it
+     */
+    public void unmakeMove(int move, int undo) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        int moving = undo & 0xF;
+        int captured = ((undo >>> 4) & 0xF) - 1;
+        int type = moving % 6;
+        state = undo >>> UNDO_STATE_SHIFT;
+
+        unsetSquare(to, placedPieceIndex(moving, PackedMove.promotion(move)));
+        setSquare(from, moving);
+        if (type == KING && (to - from == 2 || from - to == 2)) {
+            moveCastlingRook(from, to, true);
+        }
+        if (captured >= 0) {
+            setSquare(type == PAWN && to == enPassantSquare() ? enPassantVictim(to) : to, captured);
+        }
+    }
+
+    /**
+     * @return whether the move an undo token belongs to was a pawn move or a capture,
+     * after which no earlier position can come round again
+     */
+    static boolean isIrreversible(int undo) {
+        return (undo & 0xF) % 6 == PAWN || (undo & 0xF0) != 0;
+    }
+
+    /**
+     * Drops the moving piece from an undo token, leaving 15 bits; expandUndo finds
+     * the piece again on the board
+     */
+    static int compactUndo(int undo) {
+        return undo >>> 4;
+    }
+
+    /**
+     * Rebuilds the token makeMove returned for a move that is still on the board
+     *
+     * @param move        the last move played
+     * @param compactUndo the token as compactUndo left it
+     * @return the token to hand to unmakeMove
+     */
+    int expandUndo(ChessMove move, int compactUndo) {
+        int placed = pieceIndexAt(Bitboards.square(move.getEndPosition()));
+        int moving = move.getPromotionPiece() == null ? placed : (placed / 6) * 6 + PAWN;
+        return moving | (compactUndo << 4);
+    }
+
+    private void moveCastlingRook(int kingFrom, int kingTo, boolean undo) {
+        // The rook jumps from the corner to the square the king passed over
+        int rookFrom = kingTo > kingFrom ? kingFrom + 3 : kingFrom - 4;
+        int rookTo = (kingFrom + kingTo) >>> 1;
+        int rook = (kingFrom >= 56 ? 6 : 0) + ROOK;
+        if (undo) {
+            unsetSquare(rookTo, rook);
+            setSquare(rookFrom, rook);
+        } else {
+            unsetSquare(rookFrom, rook);
+            setSquare(rookTo, rook);
+        }
+    }
+
+    /**
+     * @return the square of the pawn an en passant capture onto the target removes
+     */
+    static int enPassantVictim(int target) {
+        // Targets on the third rank belong to white pawns, on the sixth to black ones
+        return target < 32 ? target + 8 : target - 8;
+    }
+
+    private static int placedPieceIndex(int moving, ChessPiece.PieceType promotion) {
+        return promotion == null ? moving : (moving / 6) * 6 + promotion.ordinal();
+    }
+
+    /**
+     * Adds every legal move the team has on this board to the collection. Unlike
+     * ChessGame.allLegalMoves this doesn't care whose turn it is, so a search can
+     * walk a board with makeMove and unmakeMove without going through a game.
+     *
+     * @param team  the team to generate moves for
+     * @param moves where to add the moves
+     */
+    public void addLegalMoves(ChessGame.TeamColor team, Collection<ChessMove> moves) {
+        MoveList packed = MoveList.scratch();
+        new MoveGenerator(this, team).generateAll(packed);
+        packed.addTo(moves);
+    }
+
+    /**
+     * Adds every legal move the team has on this board to a move list, packed with
+     * the PackedMove flags set. Nothing is allocated, so this is the one to use
+     * inside a search.
+     *
+     * @param team  the team to generate moves for
+     * @param moves where to add the moves
+     */
+    public void addLegalMoves(ChessGame.TeamColor team, MoveList moves) {
+        new MoveGenerator(this, team).generateAll(moves);
+    }
+
+    /**
+     * Hands the team's legal moves to a sink one at a time, stopping as soon as it
+     * returns false. Nothing is collected, so looking for one move costs only as
+     * much generation as it takes to find it.
+     *
+     * @param team the team to generate moves for
+     * @param sink where to hand the moves
+     * @return false if the sink stopped early
+     */
+    public boolean forEachLegalMove(ChessGame.TeamColor team, MoveSink sink) {
+        return new MoveGenerator(this, team).forEachLegalMove(sink);
+    }
+
+    /**
+     * @return True if the team has at least one legal move; stops at the first one found
+     */
+    public boolean hasLegalMove(ChessGame.TeamColor team) {
+        return new MoveGenerator(this, team).hasMove();
+    }
+
+    /**
+     * @return True if the team has a king and it is attacked
+     */
+    public boolean isInCheck(ChessGame.TeamColor team) {
+        int king = kingSquare(team);
+        return king >= 0 && isSquareAttacked(king, team.opponent());
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square. Works backwards
+     * from the target: casts rook and bishop rays and the knight, king and pawn
+     * patterns out from the square and checks whether they hit a matching piece.
+     *
+     * @param square  the square to test
+     * @param byColor the attacking team
+     * @return True if a piece of byColor could capture on that square
+     */
+    public boolean isSquareAttacked(ChessPosition square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(square), byColor);
+    }
+
+    boolean isSquareAttacked(int square, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(square, byColor, occupied());
+    }
+
+    /**
+     * Same as isSquareAttacked, but sliding attacks are traced through the given
+     * occupancy instead of the real one (e.g. with the king lifted off the board)
+     */
+    boolean isSquareAttacked(int square, ChessGame.TeamColor byColor, long occupied) {
+        int first = byColor.ordinal() * 6;
+        long queens = pieceBitboards[first + ChessPiece.PieceType.QUEEN.ordinal()];
+
+        // A pawn of byColor attacks this square iff a pawn of the other team here would attack it
+        if ((Bitboards.PAWN_ATTACKS[byColor.opponent().ordinal()][square]
+                & pieceBitboards[first + ChessPiece.PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.KNIGHT_ATTACKS[square] & pieceBitboards[first + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Bitboards.KING_ATTACKS[square] & pieceBitboards[first + ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+
+        long rookLike = pieceBitboards[first + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        if (rookLike != 0 && (Bitboards.rookAttacks(square, occupied) & rookLike) != 0) {
+            return true;
+        }
+        long bishopLike = pieceBitboards[first + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        return bishopLike != 0 && (Bitboards.bishopAttacks(square, occupied) & bishopLike) != 0;
+    }
+
+    /**
+     * @return a bitboard of every piece of byColor that attacks the square
+     */
+    long attackersOf(int square, ChessGame.TeamColor byColor, long occupied) {
+        int first = byColor.ordinal() * 6;
+        long queens = pieceBitboards[first + ChessPiece.PieceType.QUEEN.ordinal()];
+
+        return (Bitboards.PAWN_ATTACKS[byColor.opponent().ordinal()][square]
+                        & pieceBitboards[first + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Bitboards.KNIGHT_ATTACKS[square] & pieceBitboards[first + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Bitboards.KING_ATTACKS[square] & pieceBitboards[first + ChessPiece.PieceType.KING.ordinal()])
+                | (Bitboards.rookAttacks(square, occupied)
+                        & (pieceBitboards[first + ChessPiece.PieceType.ROOK.ordinal()] | queens))
+                | (Bitboards.bishopAttacks(square, occupied)
+                        & (pieceBitboards[first + ChessPiece.PieceType.BISHOP.ordinal()] | queens));
+    }
+
+    /**
+     * @return the square the team's king stands on, or -1 if it has no king
+     */
+    int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces(color, ChessPiece.PieceType.KING);
+        return king == 0 ? -1 : Long.numberOfTrailingZeros(king);
+    }
+
+    /**
+     * @return a bitboard of the team's pieces of one type; bit (row - 1) * 8 + (col - 1)
+     * is set for each piece
+     */
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the number of pieces on the board, kings included
+     */
+    public int pieceCount() {
+        return Long.bitCount(occupied());
+    }
+
+    /**
+     * Whether neither team has the material left to checkmate: bare kings, a single
+     * knight or bishop, or only bishops that all stand on squares of one colour
+     */
+    public boolean hasInsufficientMaterial() {
+        long mating = 0;
+        long minors = 0;
+        for (int color = 0; color < 12; color += 6) {
+            mating |= pieceBitboards[color + QUEEN] | pieceBitboards[color + ROOK] | pieceBitboards[color + PAWN];
+            minors |= pieceBitboards[color + BISHOP] | pieceBitboards[color + KNIGHT];
+        }
+        if (mating != 0) {
+            return false;
+        }
+        if (Long.bitCount(minors) <= 1) {
+            return true;
+        }
+        boolean knights = (pieceBitboards[KNIGHT] | pieceBitboards[6 + KNIGHT]) != 0;
+        return !knights && ((minors & Bitboards.LIGHT_SQUARES) == 0 || (minors & ~Bitboards.LIGHT_SQUARES) == 0);
+    }
+
+    long occupancy(ChessGame.TeamColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    long occupied() {
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
+    /**
+     * Gets the castling rights that still count: those set in the state whose king
+     * and rook are on their starting squares. It doesn't matter whether castling is
+     * possible right now (the path may be blocked or attacked).
+     *
+     * @return the WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE bits
+     */
+    public int getCastlingRights() {
+        int rights = state & ALL_CASTLING;
+        if (rights == 0) {
+            return 0;
+        }
+        long whiteRooks = pieceBitboards[ROOK];
+        long blackRooks = pieceBitboards[6 + ROOK];
+        if ((pieceBitboards[KING] & (1L << 4)) == 0) {
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if ((pieceBitboards[6 + KING] & (1L << 60)) == 0) {
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if ((whiteRooks & (1L << 7)) == 0) {
+            rights &= ~WHITE_KINGSIDE;
+        }
+        if ((whiteRooks & 1L) == 0) {
+            rights &= ~WHITE_QUEENSIDE;
+        }
+        if ((blackRooks & (1L << 63)) == 0) {
+            rights &= ~BLACK_KINGSIDE;
+        }
+        if ((blackRooks & (1L << 56)) == 0) {
+            rights &= ~BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * Sets which castling rights the position has, e.g. to 0 for a position where
+     * the kings or rooks have already moved
+     *
+     * @param rights any combination of the WHITE_KINGSIDE, WHITE_QUEENSIDE,
+     *               BLACK_KINGSIDE and BLACK_QUEENSIDE bits
+     */
+    public void setCastlingRights(int rights) {
+        state = (state & ~ALL_CASTLING) | (rights & ALL_CASTLING);
+    }
+
+    /**
+     * @return the square a pawn can capture en passant onto, or -1 if there is none
+     */
+    int enPassantSquare() {
+        return (state >>> EN_PASSANT_SHIFT) - 1;
+    }
+
+    /**
+     * @return the square a pawn can capture en passant onto, or null if there is none
+     */
+    public ChessPosition getEnPassantTarget() {
+        int square = enPassantSquare();
+        return square < 0 ? null : ChessPosition.ofSquare(square);
+    }
+
+    /**
+     * Sets the en passant target, the square a pawn that just moved two squares
+     * passed over. It is only kept if an enemy pawn stands ready to capture onto it,
+     * so positions that differ only by an unusable target compare and hash the same.
+     *
+     * @param square the target on the third or sixth rank, or -1 for none
+     */
+    void setEnPassantSquare(int square) {
+        state &= ALL_CASTLING;
+        if (square < 0) {
+            return;
+        }
+        // The capturing pawns are the ones a pawn of the passing side on the target would attack
+        int passing = square < 32 ? 0 : 1;
+        long capturers = Bitboards.PAWN_ATTACKS[passing][square] & pieceBitboards[(1 - passing) * 6 + PAWN];
+        if (capturers != 0) {
+            state |= (square + 1) << EN_PASSANT_SHIFT;
+        }
     }
 
     /**
@@ -43,60 +547,90 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        board = new ChessPiece[8][8];
+        pieceBitboards = new long[12];
+        colorOccupancy = new long[2];
+        state = ALL_CASTLING;
+        pieceKey = 0;
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+
+        ChessPiece.PieceType[] backRank = {
+                ChessPiece.PieceType.ROOK, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.KING, ChessPiece.PieceType.BISHOP,
+                ChessPiece.PieceType.KNIGHT, ChessPiece.PieceType.ROOK};
 
-        // Pawns
         for (int col = 0; col < 8; col++) {
-            board[1][col] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            board[6][col] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            setSquare(col, pieceIndex(ChessGame.TeamColor.WHITE, backRank[col]));
+            setSquare(8 + col, pieceIndex(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            setSquare(48 + col, pieceIndex(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            setSquare(56 + col, pieceIndex(ChessGame.TeamColor.BLACK, backRank[col]));
         }
+    }
 
-        // Rooks
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[7][0] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-        board[7][7] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK);
-
-        // Knights
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[7][1] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-        board[7][6] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
-
-        // Bishops
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[7][2] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
-        board[7][5] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+    /**
+     * Gets the Zobrist key of the position on this board: the pieces, the castling
+     * rights and the en passant target. The piece part is kept up to date as pieces
+     * are added and moves are made and the rest is two lookups, so reading it is O(1).
+     * The board doesn't know whose turn it is; ChessGame.zobristKey folds that in.
+     *
+     * @return a 64-bit key that is equal for equal positions
+     */
+    public long zobristKey() {
+        long key = pieceKey ^ Zobrist.CASTLING[getCastlingRights()];
+        int enPassant = enPassantSquare();
+        return enPassant < 0 ? key : key ^ Zobrist.EN_PASSANT_FILE[enPassant & 7];
+    }
 
-        // Queens
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[7][3] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+    /**
+     * Gets the Zobrist key of the position on this board with the given team to move
+     *
+     * @param toMove whose turn it is
+     * @return the key ChessGame.zobristKey would give for this board and turn
+     */
+    public long zobristKey(ChessGame.TeamColor toMove) {
+        long key = zobristKey();
+        return toMove == ChessGame.TeamColor.BLACK ? key ^ Zobrist.SIDE_TO_MOVE : key;
+    }
 
-        // Kings
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[7][4] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+    /**
+     * Gets the material and piece-square score of the board (see PieceSquareTables),
+     * blended between middlegame and endgame by the material left. Like the Zobrist
+     * key it is kept up to date as squares change, so reading it is O(1).
+     *
+     * @return the score in centipawns from white's point of view
+     */
+    public int pieceSquareScore() {
+        return PieceSquareTables.taper(middlegameScore, endgameScore, phase);
     }
 
+    /**
+     * Boards are equal when the same pieces stand on the same squares; castling
+     * rights and en passant are left out, as they depend on how the pieces got there
+     */
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return pieceKey == that.pieceKey && Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(pieceKey);
     }
 
     public ChessBoard deepCopy() {
         ChessBoard copy = new ChessBoard();
-        for (int row = 0; row < 8; row++) {
-            System.arraycopy(this.board[row], 0, copy.board[row], 0, 8);
-        }
+        copy.pieceBitboards = pieceBitboards.clone();
+        copy.colorOccupancy = colorOccupancy.clone();
+        copy.state = state;
+        copy.pieceKey = pieceKey;
+        copy.middlegameScore = middlegameScore;
+        copy.endgameScore = endgameScore;
+        copy.phase = phase;
         return copy;
     }
 }
@@ -2,6 +2,7 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
 
 /**
@@ -11,23 +12,21 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessGame {
+    private static final int FIFTY_MOVE_PLIES = 100;
+
     private TeamColor currentTeam;
     private ChessBoard chessBoard;
 
-    private ArrayList<ChessPosition> blackPiecesPositions = new ArrayList<>();
-    private ArrayList<ChessPosition> whitePiecesPositions = new ArrayList<>();
+    // Where each team's pieces are, rebuilt from the board when null (after
+    // setBoard, an undo or a redo, or when a game arrives as JSON)
+    private transient PieceList whitePieces;
+    private transient PieceList blackPieces;
     private boolean gameOver = false;
+    private MoveHistory history = new MoveHistory();
+    // Status of the current position, worked out the first time it's asked for
+    private transient GameStatus status;
 
     public ChessGame() {
-        for (int i = 1; i <= 8; i++) {
-            whitePiecesPositions.add(new ChessPosition(2, i));
-            whitePiecesPositions.add(new ChessPosition(1, i));
-        }
-        for (int i = 1; i <= 8; i++) {
-            blackPiecesPositions.add(new ChessPosition(7, i));
-            blackPiecesPositions.add(new ChessPosition(8, i));
-        }
-
         chessBoard = new ChessBoard();
         chessBoard.resetBoard();
 
@@ -48,6 +47,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         currentTeam = team;
+        status = null;
     }
 
     /**
@@ -55,7 +55,41 @@ public class ChessGame {
      */
     public enum TeamColor {
         WHITE,
-        BLACK
+        BLACK;
+
+        /**
+         * @return the other team
+         */
+        public TeamColor opponent() {
+            return this == WHITE ? BLACK : WHITE;
+        }
+    }
+
+    /**
+     * Where a game stands for the team to move
+     */
+    public enum GameStatus {
+        IN_PROGRESS,
+        CHECK,
+        CHECKMATE,
+        STALEMATE,
+        THREEFOLD_REPETITION,
+        FIFTY_MOVE_RULE,
+        INSUFFICIENT_MATERIAL;
+
+        /**
+         * @return whether the game can't go on from here
+         */
+        public boolean isOver() {
+            return this != IN_PROGRESS && this != CHECK;
+        }
+
+        /**
+         * @return whether the game ended without a winner
+         */
+        public boolean isDraw() {
+            return isOver() && this != CHECKMATE;
+        }
     }
 
     /**
@@ -75,21 +109,22 @@ public class ChessGame {
             return new ArrayList<>();
         }
 
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, position);
-        Collection<ChessMove> legalMoves = new ArrayList<>();
-
-        for (ChessMove move : possibleMoves) {
-            ChessBoard boardCopy = board.deepCopy();
-
-            ChessPiece movingPiece = boardCopy.getPiece(move.getStartPosition());
-            boardCopy.addPiece(move.getEndPosition(), movingPiece);
-            boardCopy.addPiece(move.getStartPosition(), null);
-
-            if (!isInCheckOnBoard(boardCopy, piece.getTeamColor())) {
-                legalMoves.add(move);
-            }
-        }
+        MoveList moves = MoveList.scratch();
+        new MoveGenerator(board, piece.getTeamColor()).generate(Bitboards.square(position), moves);
+        Collection<ChessMove> legalMoves = new ArrayList<>(moves.size());
+        moves.addTo(legalMoves);
+        return legalMoves;
+    }
 
+    /**
+     * Gets every legal move for a team on the current board
+     *
+     * @param teamColor the team to generate moves for
+     * @return all moves the team could legally make, empty if it has none
+     */
+    public Collection<ChessMove> allLegalMoves(TeamColor teamColor) {
+        Collection<ChessMove> legalMoves = new ArrayList<>();
+        chessBoard.addLegalMoves(teamColor, legalMoves);
         return legalMoves;
     }
 
@@ -109,86 +144,152 @@ public class ChessGame {
             throw new InvalidMoveException("Not your piece to move");
         }
 
-        Collection<ChessMove> validMoves = validMoves(move.getStartPosition());
-        if (!validMoves.contains(move)) {
+        int packed = PackedMove.of(move);
+        int start = PackedMove.from(packed);
+        int end = PackedMove.to(packed);
+        MoveList validMoves = MoveList.scratch();
+        new MoveGenerator(chessBoard, currentTeam).generate(start, validMoves);
+        int index = validMoves.indexOf(packed);
+        if (index < 0) {
             throw new InvalidMoveException("Move is not valid");
         }
+        // The generated move carries the capture, en passant and castling flags
+        int legal = validMoves.get(index);
+
+        // Built from the board if need be, so fetched before the move changes it
+        PieceList friendlyPieces = piecesOf(currentTeam);
+        PieceList enemyPieces = piecesOf(currentTeam.opponent());
+        long keyBefore = zobristKey();
+        history.record(move, chessBoard.makeMove(legal), keyBefore);
+
+        friendlyPieces.move(start, end);
+        if (PackedMove.isCapture(legal)) {
+            enemyPieces.remove(PackedMove.isEnPassant(legal) ? ChessBoard.enPassantVictim(end) : end);
+        }
+        // Castling: the rook jumps over the king too
+        if ((legal & PackedMove.CASTLING) != 0) {
+            boolean kingside = end > start;
+            friendlyPieces.move(kingside ? start + 3 : start - 4, (start + end) >>> 1);
+        }
 
-        ChessPiece capturedPiece = chessBoard.getPiece(move.getEndPosition());
+        currentTeam = currentTeam.opponent();
+        status = null;
+    }
 
-        ChessPiece finalPiece = move.getPromotionPiece() != null
-                ? new ChessPiece(pieceToMove.getTeamColor(), move.getPromotionPiece())
-                : pieceToMove;
 
-        chessBoard.addPiece(move.getEndPosition(), finalPiece);
-        chessBoard.addPiece(move.getStartPosition(), null);  // FIX: Remove piece from start
+    /**
+     * Takes back the last move played. It can be played again with redoMove until
+     * another move is made.
+     *
+     * @return the move taken back, or null if no moves have been played since the
+     * game started or its board was set
+     */
+    public ChessMove undoMove() {
+        ChessMove move = history.undo(chessBoard);
+        if (move != null) {
+            currentTeam = currentTeam.opponent();
+            forgetPieces();
+            status = null;
+        }
+        return move;
+    }
 
-        if (pieceToMove.getTeamColor() == TeamColor.WHITE) {
-            whitePiecesPositions.remove(move.getStartPosition());
-            whitePiecesPositions.add(move.getEndPosition());
-            if (capturedPiece != null && capturedPiece.getTeamColor() == TeamColor.BLACK) {
-                blackPiecesPositions.remove(move.getEndPosition());
-            }
-        } else {
-            blackPiecesPositions.remove(move.getStartPosition());
-            blackPiecesPositions.add(move.getEndPosition());
-            if (capturedPiece != null && capturedPiece.getTeamColor() == TeamColor.WHITE) {
-                whitePiecesPositions.remove(move.getEndPosition());
-            }
+    /**
+     * Plays the last move taken back with undoMove again
+     *
+     * @return the move replayed, or null if there is nothing to redo
+     */
+    public ChessMove redoMove() {
+        ChessMove move = history.redo(chessBoard, zobristKey());
+        if (move != null) {
+            currentTeam = currentTeam.opponent();
+            forgetPieces();
+            status = null;
         }
+        return move;
+    }
 
-        currentTeam = (currentTeam == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    /**
+     * Undoes or redoes moves until the given number of them are played
+     *
+     * @param ply moves from where the history starts, up to the last move played
+     *            including any that were taken back
+     * @throws IllegalArgumentException if there is no such ply
+     */
+    public void goToPly(int ply) {
+        if (ply < 0 || ply > history.length()) {
+            throw new IllegalArgumentException("No ply " + ply + " in a history of " + history.length());
+        }
+        while (history.ply() > ply) {
+            history.undo(chessBoard);
+            currentTeam = currentTeam.opponent();
+        }
+        while (history.ply() < ply) {
+            history.redo(chessBoard, zobristKey());
+            currentTeam = currentTeam.opponent();
+        }
+        forgetPieces();
+        status = null;
     }
 
+    /**
+     * @return how many moves have been played since the game started or its board was set
+     */
+    public int getPly() {
+        return history.ply();
+    }
 
-    public boolean isInCheck(TeamColor teamColor) {
-        return isInCheckOnBoard(this.chessBoard, teamColor);
-    }
-
-    private boolean isInCheckOnBoard(ChessBoard board, TeamColor teamColor) {
-        ChessPosition kingPosition = null;
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece != null &&
-                        piece.getTeamColor() == teamColor &&
-                        piece.getPieceType() == ChessPiece.PieceType.KING) {
-                    kingPosition = pos;
-                    break;
-                }
-            }
-            if (kingPosition != null) {
-                break;
-            }
-        }
+    /**
+     * Gets the full-move number of the current position, as a FEN gives it: it starts
+     * where the game's FEN put it (1 for a new game) and goes up after each black move
+     *
+     * @return the number of the move about to be played
+     */
+    public int getFullmoveNumber() {
+        int ply = history.ply();
+        boolean blackMovedFirst = (currentTeam == TeamColor.BLACK) == (ply % 2 == 0);
+        return history.startMove() + (blackMovedFirst ? ply + 1 : ply) / 2;
+    }
 
-        if (kingPosition == null) {
-            return false;
-        }
+    /**
+     * @return the moves played to reach the current position, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        return history.moves();
+    }
 
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (piece == null || piece.getTeamColor() == teamColor) {
-                    continue;  // Early skip for non-enemies
-                }
-
-                // Extracted: Check if this piece can attack king
-                if (canPieceAttackKing(piece, pos, board, kingPosition)) {
-                    return true;
-                }
-            }
-        }
+    MoveHistory history() {
+        return history;
+    }
 
-        return false;
+    /**
+     * Gets the Zobrist keys of the earlier positions the current one could repeat:
+     * those since the last pawn move or capture. A search can use them to see a
+     * repetition coming.
+     *
+     * @return the keys, oldest first, without the current position
+     */
+    public long[] repeatablePositionKeys() {
+        return history.recentKeys(chessBoard, currentTeam);
     }
 
-    private boolean canPieceAttackKing(ChessPiece piece, ChessPosition pos, ChessBoard board, ChessPosition kingPos) {
-        return piece.pieceMoves(board, pos)
-                .stream()  // Or loop if avoiding streams
-                .anyMatch(move -> move.getEndPosition().equals(kingPos));
+    /**
+     * Copies the game, including its move history, so the copy can be searched or
+     * played on while this game changes
+     *
+     * @return an independent copy of this game
+     */
+    public ChessGame copy() {
+        ChessGame copy = new ChessGame();
+        copy.chessBoard = chessBoard.deepCopy();
+        copy.currentTeam = currentTeam;
+        copy.gameOver = gameOver;
+        copy.history = history.copy();
+        return copy;
+    }
+
+    public boolean isInCheck(TeamColor teamColor) {
+        return chessBoard.isInCheck(teamColor);
     }
 
     /**
@@ -206,12 +307,13 @@ public class ChessGame {
     }
 
     private boolean hasNoValidMoves(TeamColor teamColor) {
-        var friendlyPieces = teamColor == TeamColor.WHITE ? whitePiecesPositions : blackPiecesPositions;
+        PieceList friendlyPieces = piecesOf(teamColor);
 
-        for (ChessPosition position : friendlyPieces) {
-            Collection<ChessMove> moves = validMoves(position);
+        MoveGenerator generator = new MoveGenerator(chessBoard, teamColor);
 
-            if (!moves.isEmpty()) {
+        // The first legal move found settles it
+        for (int slot = 0; slot < friendlyPieces.size(); slot++) {
+            if (generator.hasMove(friendlyPieces.square(slot))) {
                 return false;
             }
         }
@@ -219,6 +321,50 @@ public class ChessGame {
     }
 
 
+    /**
+     * Works out where the game stands for the team whose turn it is. Checkmate and
+     * stalemate come first; the draws are then insufficient material, the fifty-move
+     * rule (100 half-moves without a pawn move or capture) and threefold repetition,
+     * all of which end the game without anyone having to claim them.
+     * Resignation isn't a property of the position; see isGameOver for that.
+     * <p>
+     * The status is worked out once per position and kept until a move is made, taken
+     * back or replayed, or the board or turn is set. Pieces moved straight on the board
+     * from getBoard aren't noticed; hand the board back with setBoard.
+     *
+     * @return the status of the current position
+     */
+    public GameStatus getGameStatus() {
+        if (status == null) {
+            status = computeGameStatus();
+        }
+        return status;
+    }
+
+    private GameStatus computeGameStatus() {
+        boolean inCheck = isInCheck(currentTeam);
+        if (hasNoValidMoves(currentTeam)) {
+            return inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+        }
+        if (chessBoard.hasInsufficientMaterial()) {
+            return GameStatus.INSUFFICIENT_MATERIAL;
+        }
+        if (history.halfmoveClock() >= FIFTY_MOVE_PLIES) {
+            return GameStatus.FIFTY_MOVE_RULE;
+        }
+        if (history.repetitions(chessBoard, currentTeam) >= 2) {
+            return GameStatus.THREEFOLD_REPETITION;
+        }
+        return inCheck ? GameStatus.CHECK : GameStatus.IN_PROGRESS;
+    }
+
+    /**
+     * @return half-moves since the last pawn move or capture
+     */
+    public int getHalfmoveClock() {
+        return history.halfmoveClock();
+    }
+
     /**
      * Determines if the given team is in stalemate, which here is defined as having
      * no valid moves while not in check.
@@ -241,23 +387,22 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         chessBoard = board;
-        whitePiecesPositions = new ArrayList<>();
-        blackPiecesPositions = new ArrayList<>();
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = chessBoard.getPiece(pos);
-
-                if (piece != null) {
-                    if (piece.getTeamColor() == TeamColor.WHITE) {
-                        whitePiecesPositions.add(pos);
-                    } else {
-                        blackPiecesPositions.add(pos);
-                    }
-                }
-            }
+        history = new MoveHistory();
+        forgetPieces();
+        status = null;
+    }
+
+    PieceList piecesOf(TeamColor team) {
+        if (whitePieces == null) {
+            whitePieces = PieceList.of(chessBoard.occupancy(TeamColor.WHITE));
+            blackPieces = PieceList.of(chessBoard.occupancy(TeamColor.BLACK));
         }
+        return team == TeamColor.WHITE ? whitePieces : blackPieces;
+    }
+
+    private void forgetPieces() {
+        whitePieces = null;
+        blackPieces = null;
     }
 
     /**
@@ -269,6 +414,35 @@ public class ChessGame {
         return chessBoard;
     }
 
+    /**
+     * Creates a game from a position written in Forsyth-Edwards Notation, e.g.
+     * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1}.
+     * The piece placement and side to move are required; the remaining fields are optional.
+     *
+     * @param fen the position to load
+     * @return a new game at that position
+     * @throws IllegalArgumentException if the FEN is malformed
+     */
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the current position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.format(this);
+    }
+
+    /**
+     * Gets the Zobrist key of the current position, including whose turn it is
+     *
+     * @return a 64-bit key identifying the position
+     */
+    public long zobristKey() {
+        return chessBoard.zobristKey(currentTeam);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof ChessGame chessGame)) {
@@ -0,0 +1,160 @@
+package chess;
+
+/**
+ * Compact binary encoding of a ChessGame, used to persist games and to ship
+ * them around without a JSON round trip.
+ * <p>
+ * Layout (43 bytes plus 4 per move in the history):
+ * <pre>
+ * byte 0       format version
+ * bytes 1-32   the board, one nibble per square from a1 to h8 (low nibble first);
+ *              0 is an empty square, otherwise pieceIndex + 1
+ * byte 33      flags: bit 0 black to move, bit 1 game over, bits 2-5 castling rights
+ *              (ChessBoard.getCastlingRights)
+ * byte 34      en passant target square + 1, 0 if there is none
+ * bytes 35-36  half-move clock before the first move in the history (big-endian)
+ * bytes 37-38  full-move number before the first move in the history
+ * bytes 39-40  moves in the history, including any taken back
+ * bytes 41-42  moves in the history played on the board (ChessGame.getPly)
+ * bytes 43-    one MoveHistory entry per move, 4 bytes each
+ * </pre>
+ */
+public final class ChessGameCodec {
+    public static final byte VERSION = 1;
+
+    private static final int BOARD_OFFSET = 1;
+    private static final int FLAGS_OFFSET = BOARD_OFFSET + 32;
+    private static final int EN_PASSANT_OFFSET = FLAGS_OFFSET + 1;
+    private static final int CLOCK_OFFSET = EN_PASSANT_OFFSET + 1;
+    private static final int MOVE_NUMBER_OFFSET = CLOCK_OFFSET + 2;
+    private static final int HISTORY_OFFSET = MOVE_NUMBER_OFFSET + 2;
+    private static final int ENTRIES_OFFSET = HISTORY_OFFSET + 4;
+    private static final int MAX_HISTORY = 0xFFFF;
+
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_GAME_OVER = 1 << 1;
+    private static final int CASTLING_SHIFT = 2;
+
+    private ChessGameCodec() {
+    }
+
+    /**
+     * Encodes a game
+     *
+     * @param game the game to encode
+     * @return the encoded bytes
+     */
+    public static byte[] encode(ChessGame game) {
+        MoveHistory history = game.history();
+        int[] entries = history.entries();
+        if (entries.length > MAX_HISTORY) {
+            throw new IllegalArgumentException("Game history is too long to encode: " + entries.length + " moves");
+        }
+        byte[] data = new byte[ENTRIES_OFFSET + entries.length * 4];
+        data[0] = VERSION;
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int low = board.pieceIndexAt(square) + 1;
+            int high = board.pieceIndexAt(square + 1) + 1;
+            data[BOARD_OFFSET + square / 2] = (byte) (low | (high << 4));
+        }
+
+        int flags = 0;
+        if (game.getTeamTurn() == ChessGame.TeamColor.BLACK) {
+            flags |= FLAG_BLACK_TO_MOVE;
+        }
+        if (game.isGameOver()) {
+            flags |= FLAG_GAME_OVER;
+        }
+        flags |= board.getCastlingRights() << CASTLING_SHIFT;
+        data[FLAGS_OFFSET] = (byte) flags;
+        data[EN_PASSANT_OFFSET] = (byte) (board.enPassantSquare() + 1);
+
+        writeShort(data, CLOCK_OFFSET, Math.min(history.startClock(), 0xFFFF));
+        writeShort(data, MOVE_NUMBER_OFFSET, Math.min(history.startMove(), 0xFFFF));
+        writeShort(data, HISTORY_OFFSET, entries.length);
+        writeShort(data, HISTORY_OFFSET + 2, history.ply());
+        for (int i = 0; i < entries.length; i++) {
+            int offset = ENTRIES_OFFSET + i * 4;
+            writeShort(data, offset, entries[i] >>> 16);
+            writeShort(data, offset + 2, entries[i]);
+        }
+
+        return data;
+    }
+
+    /**
+     * Decodes a game produced by encode
+     *
+     * @param data the encoded bytes
+     * @return the decoded game
+     * @throws IllegalArgumentException if the data is truncated, corrupt or from an
+     *                                  unknown format version
+     */
+    public static ChessGame decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("No encoded game data");
+        }
+        if (data[0] != VERSION) {
+            throw new IllegalArgumentException("Unsupported game encoding version " + data[0]);
+        }
+        if (data.length < ENTRIES_OFFSET) {
+            throw new IllegalArgumentException("Encoded game is truncated");
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = data[BOARD_OFFSET + square / 2];
+            int code = (square & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF;
+            if (code > 12) {
+                throw new IllegalArgumentException("Invalid piece code " + code + " in encoded game");
+            }
+            if (code != 0) {
+                board.addPiece(ChessPosition.ofSquare(square), ChessPiece.ofIndex(code - 1));
+            }
+        }
+
+        int flags = data[FLAGS_OFFSET];
+        int enPassant = data[EN_PASSANT_OFFSET] - 1;
+        if (enPassant >= 64) {
+            throw new IllegalArgumentException("Invalid en passant square " + enPassant + " in encoded game");
+        }
+        board.setCastlingRights(flags >>> CASTLING_SHIFT);
+        board.setEnPassantSquare(enPassant);
+
+        int length = readShort(data, HISTORY_OFFSET);
+        int ply = readShort(data, HISTORY_OFFSET + 2);
+        if (ply > length) {
+            throw new IllegalArgumentException("Encoded game is at ply " + ply + " of a " + length + " move history");
+        }
+        if (data.length < ENTRIES_OFFSET + length * 4) {
+            throw new IllegalArgumentException("Encoded game history is truncated");
+        }
+        int[] entries = new int[length];
+        for (int i = 0; i < length; i++) {
+            int offset = ENTRIES_OFFSET + i * 4;
+            entries[i] = (readShort(data, offset) << 16) | readShort(data, offset + 2);
+            if (!MoveHistory.isValidEntry(entries[i])) {
+                throw new IllegalArgumentException("Invalid move " + i + " in encoded game history");
+            }
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setGameOver((flags & FLAG_GAME_OVER) != 0);
+        game.history().load(entries, ply, readShort(data, CLOCK_OFFSET),
+                Math.max(readShort(data, MOVE_NUMBER_OFFSET), 1));
+        return game;
+    }
+
+    private static void writeShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 8);
+        data[offset + 1] = (byte) value;
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF);
+    }
+}
@@ -2,7 +2,6 @@ package chess;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
 
 /**
  * Represents a single chess piece
@@ -11,6 +10,17 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece {
+    // Canonical pieces, indexed by ChessBoard.pieceIndex(color, type)
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[ChessBoard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final PieceType pieceType;
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
@@ -18,6 +28,20 @@ public class ChessPiece {
         this.pieceType = type;
     }
 
+    /**
+     * Gets the shared instance of a piece. Pieces are immutable, so there only
+     * ever needs to be one of each kind.
+     *
+     * @return the canonical piece for that team and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[ChessBoard.pieceIndex(pieceColor, type)];
+    }
+
+    static ChessPiece ofIndex(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -46,6 +70,9 @@ public class ChessPiece {
 
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -55,7 +82,7 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamColor, pieceType);
+        return teamColor.ordinal() * 6 + pieceType.ordinal();
     }
 
     /**
@@ -66,184 +93,28 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        return switch (pieceType) {
-            case KING -> kingMoves(board, myPosition);
-            case QUEEN -> queenMoves(board, myPosition);
-            case BISHOP -> bishopMoves(board, myPosition);
-            case KNIGHT -> knightMoves(board, myPosition);
-            case ROOK -> rookMoves(board, myPosition);
-            case PAWN -> pawnMoves(board, myPosition);
-            default -> throw new RuntimeException("Unknown piece type: " + pieceType);
-        };
-    }
-
-    private Collection<ChessMove> kingMoves(ChessBoard board, ChessPosition myPosition) {
-        int[] moveOffsets = {-1, 0, 1};
-        ArrayList<ChessMove> moves = new ArrayList<>();
-
-        for (int rowOffset : moveOffsets) {
-            for (int colOffset : moveOffsets) {
-                int newRow = myPosition.getRow() + rowOffset;
-                int newCol = myPosition.getColumn() + colOffset;
-
-                if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) {
-                    continue;
-                }
-                else if (rowOffset == 0 && colOffset == 0) {
-                    continue;
-                }
-
-
-                ChessPosition newPosition = new ChessPosition(newRow, newCol);
-                ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-                if (pieceAtNewPosition != null) {
-                    if (pieceAtNewPosition.getTeamColor() != this.teamColor) {
-                        moves.add(new ChessMove(myPosition, newPosition, null));
-                    }
-                } else {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-            }
-        }
-
-        return moves;
-    }
-
-    private Collection<ChessMove> queenMoves(ChessBoard board, ChessPosition myPosition) {
-        var moves = linearMoves(board, myPosition, 1, 0);
-        moves.addAll(linearMoves(board, myPosition, -1, 0));
-        moves.addAll(linearMoves(board, myPosition, 0, 1));
-        moves.addAll(linearMoves(board, myPosition, 0, -1));
-        moves.addAll(linearMoves(board, myPosition, 1, 1));
-        moves.addAll(linearMoves(board, myPosition, 1, -1));
-        moves.addAll(linearMoves(board, myPosition, -1, 1));
-        moves.addAll(linearMoves(board, myPosition, -1, -1));
-
-        return moves;
-    }
-
-    private Collection<ChessMove> bishopMoves(ChessBoard board, ChessPosition myPosition) {
-        var moves = linearMoves(board, myPosition, 1, 1);
-        moves.addAll(linearMoves(board, myPosition, -1, 1));
-        moves.addAll(linearMoves(board, myPosition, 1, -1));
-        moves.addAll(linearMoves(board, myPosition, -1, -1));
-
-        return moves;
-    }
-
-    private Collection<ChessMove> knightMoves(ChessBoard board, ChessPosition myPosition) {
-        int[][] moveOffsets = {
-                {1, 2}, {1, -2}, {-1, 2}, {-1, -2},
-                {2, 1}, {2, -1}, {-2, 1}, {-2, -1}};
-
-        ArrayList<ChessMove> moves = new ArrayList<>();
-
-        for (int[] offset : moveOffsets) {
-            int newRow = myPosition.getRow() + offset[0];
-            int newCol = myPosition.getColumn() + offset[1];
-
-            if (newRow < 1 || newRow > 8 || newCol < 1 || newCol > 8) {
-                continue;
-            }
-
-            ChessPosition newPosition = new ChessPosition(newRow, newCol);
-            ChessPiece pieceAtNewPosition = board.getPiece(newPosition);
-
-            if (pieceAtNewPosition != null) {
-                if (pieceAtNewPosition.getTeamColor() != this.teamColor) {
-                    moves.add(new ChessMove(myPosition, newPosition, null));
-                }
-            } else {
-                moves.add(new ChessMove(myPosition, newPosition, null));
-            }
-        }
-
-        return moves;
-    }
-
-    private Collection<ChessMove> rookMoves(ChessBoard board, ChessPosition myPosition) {
-        var moves = linearMoves(board, myPosition, 1, 0);
-        moves.addAll(linearMoves(board, myPosition, -1, 0));
-        moves.addAll(linearMoves(board, myPosition, 0, 1));
-        moves.addAll(linearMoves(board, myPosition, 0, -1));
-
+        int square = Bitboards.square(myPosition);
+        long targets = MoveGenerator.pseudoLegalTargets(board, teamColor, pieceType, square);
+
+        MoveList packed = MoveList.scratch();
+        MoveGenerator.generate(square, targets, board.occupancy(teamColor.opponent()), pieceType == PieceType.PAWN,
+                packed);
+        ArrayList<ChessMove> moves = new ArrayList<>(packed.size());
+        packed.addTo(moves);
         return moves;
     }
 
-    private Collection<ChessMove> pawnMoves(ChessBoard board, ChessPosition myPosition) {
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        int direction = (this.teamColor == ChessGame.TeamColor.WHITE) ? 1 : -1;
-        int startRow = (this.teamColor == ChessGame.TeamColor.WHITE) ? 2 : 7;
-        int promotionRow = (this.teamColor == ChessGame.TeamColor.WHITE) ? 8 : 1;
-
-        int oneStepRow = row + direction;
-        if (oneStepRow >= 1 && oneStepRow <= 8) {
-            ChessPosition newPosition = new ChessPosition(oneStepRow, col);
-            if (board.getPiece(newPosition) == null) {
-                addMoveWithPromotion(moves, myPosition, newPosition, promotionRow);
-
-                if (row == startRow) {
-                    int twoStepRow = row + 2 * direction;
-                    ChessPosition twoStepPosition = new ChessPosition(twoStepRow, col);
-                    if (board.getPiece(twoStepPosition) == null) {
-                        moves.add(new ChessMove(myPosition, twoStepPosition, null));
-                    }
-                }
-            }
-
-            int[] captureOffsets = {-1, 1};
-            for (int offset : captureOffsets) {
-                int captureCol = col + offset;
-                if (captureCol >= 1 && captureCol <= 8) {
-                    ChessPosition capturePosition = new ChessPosition(oneStepRow, captureCol);
-                    ChessPiece pieceAtCapture = board.getPiece(capturePosition);
-                    if (pieceAtCapture != null && pieceAtCapture.getTeamColor() != this.teamColor) {
-                        addMoveWithPromotion(moves, myPosition, capturePosition, promotionRow);
-                    }
-                }
-            }
-        }
-
-        return moves;
-    }
-
-    private void addMoveWithPromotion(ArrayList<ChessMove> moves, ChessPosition start, ChessPosition end, int promotionRow) {
-        if (end.getRow() == promotionRow) {
-            for (PieceType type : new PieceType[]{PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT}) {
-                moves.add(new ChessMove(start, end, type));
-            }
-        } else {
-            moves.add(new ChessMove(start, end, null));
-        }
-    }
-
-    private Collection<ChessMove> linearMoves(ChessBoard board, ChessPosition myPosition, int rowIncrement, int colIncrement) {
-        ArrayList<ChessMove> moves = new ArrayList<>();
-        int row = myPosition.getRow();
-        int col = myPosition.getColumn();
-        int newRow = row + rowIncrement;
-        int newCol = col + colIncrement;
-
-        while (newRow >= 1 && newRow <= 8 && newCol >= 1 && newCol <= 8) {
-            ChessPosition position = new ChessPosition(newRow, newCol);
-            ChessPiece pieceAtPosition = board.getPiece(position);
-            if (pieceAtPosition == null) {
-                moves.add(new ChessMove(myPosition, position, null));
-            } else {
-                if (pieceAtPosition.getTeamColor() != this.teamColor) {
-                    moves.add(new ChessMove(myPosition, position, null));
-                }
-                break;
-            }
-
-            newRow += rowIncrement;
-            newCol += colIncrement;
-        }
-
-        return moves;
+    /**
+     * Hands the moves pieceMoves would return to a sink as each one is generated,
+     * stopping as soon as it returns false
+     *
+     * @return false if the sink stopped early
+     */
+    public boolean forEachPieceMove(ChessBoard board, ChessPosition myPosition, MoveSink sink) {
+        int square = Bitboards.square(myPosition);
+        long targets = MoveGenerator.pseudoLegalTargets(board, teamColor, pieceType, square);
+        return MoveGenerator.generate(square, targets, board.occupancy(teamColor.opponent()),
+                pieceType == PieceType.PAWN, move -> sink.accept(PackedMove.toChessMove(move)));
     }
 
 }
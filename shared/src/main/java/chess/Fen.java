@@ -0,0 +1,200 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation. Both directions are a single pass
+ * over the characters; nothing is split, matched or boxed along the way.
+ */
+final class Fen {
+    // Piece letters, indexed by PieceType ordinal
+    private static final String PIECE_LETTERS = "KQBNRP";
+    // Castling letters, indexed by the bit of their right in ChessBoard
+    private static final String CASTLING_LETTERS = "KQkq";
+    // Move counters are clamped rather than overflowing
+    private static final int MAX_COUNTER = 9999;
+
+    private Fen() {
+    }
+
+    static ChessGame parse(CharSequence fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("FEN is null");
+        }
+
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = 0;
+        int row = 8;
+        int col = 1;
+
+        // 1. Piece placement, rank 8 first
+        for (; i < length; i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw invalid(fen, "misplaced '/'");
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > 9) {
+                    throw invalid(fen, "rank " + row + " is too long");
+                }
+            } else {
+                int type = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+                if (type < 0 || col > 8) {
+                    throw invalid(fen, "unexpected '" + c + "'");
+                }
+                int color = Character.isUpperCase(c) ? 0 : 1;
+                board.addPiece(ChessPosition.of(row, col), ChessPiece.ofIndex(color * 6 + type));
+                col++;
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw invalid(fen, "piece placement does not cover 8 ranks of 8 squares");
+        }
+
+        // 2. Side to move
+        i = skipSpace(fen, i);
+        if (i >= length) {
+            throw invalid(fen, "missing side to move");
+        }
+        ChessGame.TeamColor turn = switch (fen.charAt(i)) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw invalid(fen, "side to move must be 'w' or 'b'");
+        };
+        i++;
+
+        // 3. Castling availability; a board without one keeps every right its kings and rooks allow
+        i = skipSpace(fen, i);
+        if (i < length) {
+            if (fen.charAt(i) == '-') {
+                board.setCastlingRights(0);
+                i++;
+            } else {
+                int rights = 0;
+                for (; i < length && fen.charAt(i) != ' '; i++) {
+                    int right = CASTLING_LETTERS.indexOf(fen.charAt(i));
+                    if (right < 0) {
+                        throw invalid(fen, "bad castling field");
+                    }
+                    rights |= 1 << right;
+                }
+                board.setCastlingRights(rights);
+            }
+        }
+
+        // 4. En passant target
+        i = skipSpace(fen, i);
+        if (i < length) {
+            if (fen.charAt(i) == '-') {
+                i++;
+            } else {
+                if (i + 1 >= length || fen.charAt(i) < 'a' || fen.charAt(i) > 'h'
+                        || (fen.charAt(i + 1) != '3' && fen.charAt(i + 1) != '6')) {
+                    throw invalid(fen, "bad en passant field");
+                }
+                board.setEnPassantSquare((fen.charAt(i + 1) - '1') * 8 + (fen.charAt(i) - 'a'));
+                i += 2;
+            }
+        }
+
+        // 5-6. Half-move clock, kept for the fifty-move rule, and full-move number
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        for (int field = 0; field < 2; field++) {
+            i = skipSpace(fen, i);
+            int start = i;
+            int value = 0;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                if (fen.charAt(i) < '0' || fen.charAt(i) > '9') {
+                    throw invalid(fen, "move counters must be numbers");
+                }
+                value = Math.min(value * 10 + (fen.charAt(i) - '0'), MAX_COUNTER);
+            }
+            if (start == i) {
+                break;
+            }
+            if (field == 0) {
+                halfmoveClock = value;
+            } else {
+                fullmoveNumber = Math.max(value, 1);
+            }
+        }
+        if (skipSpace(fen, i) != length) {
+            throw invalid(fen, "unexpected trailing text");
+        }
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.history().setStartClock(halfmoveClock);
+        game.history().setStartMove(fullmoveNumber);
+        return game;
+    }
+
+    static String format(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder fen = new StringBuilder(90);
+
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int pieceIndex = board.pieceIndexAt((row - 1) * 8 + (col - 1));
+                if (pieceIndex < 0) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                char letter = PIECE_LETTERS.charAt(pieceIndex % 6);
+                fen.append(pieceIndex < 6 ? letter : Character.toLowerCase(letter));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        }
+        for (int right = 0; right < 4; right++) {
+            if ((rights & (1 << right)) != 0) {
+                fen.append(CASTLING_LETTERS.charAt(right));
+            }
+        }
+
+        int enPassant = board.enPassantSquare();
+        if (enPassant < 0) {
+            fen.append(" -");
+        } else {
+            fen.append(' ').append((char) ('a' + (enPassant & 7))).append((char) ('1' + (enPassant >>> 3)));
+        }
+        fen.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber());
+        return fen.toString();
+    }
+
+    private static int skipSpace(CharSequence fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
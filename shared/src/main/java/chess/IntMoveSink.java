@@ -0,0 +1,14 @@
+package chess;
+
+/**
+ * Receives moves packed as ints (see PackedMove) straight from the move generator,
+ * as each one is found
+ */
+@FunctionalInterface
+interface IntMoveSink {
+    /**
+     * @param move the next move, with the PackedMove flags set
+     * @return true to keep generating, false to stop
+     */
+    boolean accept(int move);
+}
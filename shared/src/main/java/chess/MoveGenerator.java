@@ -0,0 +1,274 @@
+package chess;
+
+/**
+ * Generates strictly legal moves for one team on one position.
+ * <p>
+ * Checking pieces and pinned pieces are worked out once when the generator is
+ * created. After that every move is legal by construction: non-king moves are
+ * limited to the squares that resolve a check and, for pinned pieces, to the
+ * pin line. Only king moves, castling and en passant need an attack probe.
+ * <p>
+ * Moves are packed as ints and handed to an IntMoveSink the moment each one is
+ * found, so generating allocates nothing. A MoveList is one such sink; the others
+ * can stop generation after any move, before the rest of that piece's moves are
+ * worked out.
+ */
+final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    // Stops at the first move, for when all that matters is whether there is one
+    private static final IntMoveSink FIRST_MOVE = move -> false;
+
+    private final ChessBoard board;
+    private final ChessGame.TeamColor side;
+    private final int kingSquare;
+    private final long checkers;
+    // Destinations that resolve the current check; every square if not in check
+    private final long checkMask;
+    private final long pinned;
+
+    MoveGenerator(ChessBoard board, ChessGame.TeamColor side) {
+        this.board = board;
+        this.side = side;
+        this.kingSquare = board.kingSquare(side);
+
+        if (kingSquare < 0) {
+            checkers = 0;
+            checkMask = ~0L;
+            pinned = 0;
+            return;
+        }
+
+        ChessGame.TeamColor enemy = side.opponent();
+        long occupied = board.occupied();
+        checkers = board.attackersOf(kingSquare, enemy, occupied);
+
+        if (checkers == 0) {
+            checkMask = ~0L;
+        } else if (Long.bitCount(checkers) == 1) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Bitboards.BETWEEN[kingSquare][checker];
+        } else {
+            checkMask = 0;
+        }
+
+        // Enemy sliders that would see the king on an empty board; if exactly one
+        // piece stands in between and it is ours, that piece is pinned
+        long enemyQueens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(kingSquare, 0)
+                & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | enemyQueens))
+                | (Bitboards.bishopAttacks(kingSquare, 0)
+                & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | enemyQueens));
+        long own = board.occupancy(side);
+        long pinnedPieces = 0;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.BETWEEN[kingSquare][sniper] & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+                pinnedPieces |= blockers;
+            }
+        }
+        pinned = pinnedPieces;
+    }
+
+    /**
+     * Hands every legal move of the team to the sink
+     *
+     * @return false if the sink stopped generation early
+     */
+    boolean generateAll(IntMoveSink sink) {
+        long pieces = board.occupancy(side);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            if (!generate(from, sink)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Hands every legal move of the team to the sink as a ChessMove
+     *
+     * @return false if the sink stopped generation early
+     */
+    boolean forEachLegalMove(MoveSink sink) {
+        return generateAll(move -> sink.accept(PackedMove.toChessMove(move)));
+    }
+
+    /**
+     * @return whether the team has a legal move, stopping at the first one found
+     */
+    boolean hasMove() {
+        return !generateAll(FIRST_MOVE);
+    }
+
+    /**
+     * @return whether the piece on the given square has a legal move, stopping at
+     * the first one found
+     */
+    boolean hasMove(int from) {
+        return !generate(from, FIRST_MOVE);
+    }
+
+    /**
+     * Hands the legal moves of the piece on the given square to the sink
+     *
+     * @return false if the sink stopped generation early
+     */
+    boolean generate(int from, IntMoveSink sink) {
+        int pieceIndex = board.pieceIndexAt(from);
+        if (pieceIndex < 0 || pieceIndex / 6 != side.ordinal()) {
+            return true;
+        }
+        ChessPiece.PieceType type = TYPES[pieceIndex % 6];
+
+        if (type == ChessPiece.PieceType.KING) {
+            return generateKingMoves(from, sink);
+        }
+
+        long targets = pseudoLegalTargets(board, side, type, from) & checkMask;
+        if ((pinned & (1L << from)) != 0) {
+            targets &= Bitboards.LINE[kingSquare][from];
+        }
+        if (!generate(from, targets, board.occupancy(side.opponent()), type == ChessPiece.PieceType.PAWN, sink)) {
+            return false;
+        }
+        return type != ChessPiece.PieceType.PAWN || generateEnPassant(from, sink);
+    }
+
+    /**
+     * En passant takes two pawns off one rank at once, which can expose the king in
+     * ways the pin and check masks don't cover, so it is checked by lifting both
+     * pawns off and probing the king directly
+     */
+    private boolean generateEnPassant(int from, IntMoveSink sink) {
+        int target = board.enPassantSquare();
+        if (target < 0 || (target >= 32) != (side == ChessGame.TeamColor.WHITE)
+                || (Bitboards.PAWN_ATTACKS[side.ordinal()][from] & (1L << target)) == 0) {
+            return true;
+        }
+        if (kingSquare >= 0) {
+            long victim = 1L << ChessBoard.enPassantVictim(target);
+            long occupied = (board.occupied() ^ (1L << from) ^ victim) | (1L << target);
+            if ((board.attackersOf(kingSquare, side.opponent(), occupied) & ~victim) != 0) {
+                return true;
+            }
+        }
+        return sink.accept(PackedMove.of(from, target) | PackedMove.CAPTURE | PackedMove.EN_PASSANT);
+    }
+
+    private boolean generateKingMoves(int from, IntMoveSink sink) {
+        ChessGame.TeamColor enemy = side.opponent();
+        // Lift the king off the board so it can't hide behind itself on a checking ray
+        long occupied = board.occupied() & ~(1L << from);
+        long enemies = board.occupancy(enemy);
+        long targets = Bitboards.KING_ATTACKS[from] & ~board.occupancy(side);
+
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (board.isSquareAttacked(to, enemy, occupied)) {
+                continue;
+            }
+            if (!sink.accept(PackedMove.of(from, to) | ((enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0))) {
+                return false;
+            }
+        }
+
+        return checkers != 0 || generateCastling(from, sink);
+    }
+
+    /**
+     * Castling needs the right (so the king and rook haven't moved), an empty path
+     * between them, and the king not passing over or landing on an attacked square.
+     * The caller has already ruled out castling out of check.
+     */
+    private boolean generateCastling(int from, IntMoveSink sink) {
+        // This side's kingside right in bit 0 and queenside right in bit 1
+        int rights = (board.getCastlingRights() >>> (side.ordinal() * 2)) & 3;
+        if (rights == 0) {
+            return true;
+        }
+        ChessGame.TeamColor enemy = side.opponent();
+        long occupied = board.occupied();
+
+        if ((rights & 1) != 0 && (Bitboards.BETWEEN[from][from + 3] & occupied) == 0
+                && !board.isSquareAttacked(from + 1, enemy) && !board.isSquareAttacked(from + 2, enemy)
+                && !sink.accept(PackedMove.of(from, from + 2) | PackedMove.CASTLING)) {
+            return false;
+        }
+        if ((rights & 2) != 0 && (Bitboards.BETWEEN[from][from - 4] & occupied) == 0
+                && !board.isSquareAttacked(from - 1, enemy) && !board.isSquareAttacked(from - 2, enemy)
+                && !sink.accept(PackedMove.of(from, from - 2) | PackedMove.CASTLING)) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Destinations of a piece ignoring whether its own king is left in check
+     */
+    static long pseudoLegalTargets(ChessBoard board, ChessGame.TeamColor color, ChessPiece.PieceType type,
+                                   int square) {
+        long notOwn = ~board.occupancy(color);
+        long occupied = board.occupied();
+
+        return switch (type) {
+            case KING -> Bitboards.KING_ATTACKS[square] & notOwn;
+            case QUEEN -> Bitboards.queenAttacks(square, occupied) & notOwn;
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied) & notOwn;
+            case KNIGHT -> Bitboards.KNIGHT_ATTACKS[square] & notOwn;
+            case ROOK -> Bitboards.rookAttacks(square, occupied) & notOwn;
+            case PAWN -> pawnTargets(board, color, square);
+        };
+    }
+
+    private static long pawnTargets(ChessBoard board, ChessGame.TeamColor color, int square) {
+        long empty = ~board.occupied();
+        long from = 1L << square;
+        long singlePush;
+        long doublePush;
+
+        if (color == ChessGame.TeamColor.WHITE) {
+            singlePush = (from << 8) & empty;
+            doublePush = ((singlePush & Bitboards.RANK_3) << 8) & empty;
+        } else {
+            singlePush = (from >>> 8) & empty;
+            doublePush = ((singlePush & Bitboards.RANK_6) >>> 8) & empty;
+        }
+
+        long captures = Bitboards.PAWN_ATTACKS[color.ordinal()][square] & board.occupancy(color.opponent());
+        return singlePush | doublePush | captures;
+    }
+
+    /**
+     * Turns every set bit of the target mask into a move from the given square,
+     * expanding pawn moves onto the last rank into the four promotions
+     *
+     * @param enemies the squares holding pieces the moves would capture
+     * @return false if the sink stopped generation early
+     */
+    static boolean generate(int from, long targets, long enemies, boolean pawn, IntMoveSink sink) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int move = PackedMove.of(from, to) | ((enemies & (1L << to)) != 0 ? PackedMove.CAPTURE : 0);
+
+            if (pawn && ((1L << to) & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0) {
+                for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                    if (!sink.accept(PackedMove.promoting(move, type))) {
+                        return false;
+                    }
+                }
+            } else if (!sink.accept(move)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,413 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The moves played in a game, one int per ply, so a game can be stepped backwards
+ * and forwards without keeping a board for every position.
+ * <p>
+ * Each entry packs a move with what ChessBoard needs to take it back:
+ * <pre>
+ * bits 0-14    the move as PackedMove packs it, without flags (PackedMove.key)
+ * bits 15-29   the undo token without its moving piece (ChessBoard.compactUndo)
+ * bit 30       set for a pawn move or capture
+ * </pre>
+ * Entries past the current ply were taken back and can be replayed; playing a new
+ * move drops them.
+ * <p>
+ * For the draw rules it also keeps the half-move clock, and the Zobrist keys of the
+ * positions since the last pawn move or capture in a ring indexed by ply; nothing
+ * before that can repeat. The ring starts at 8 keys and doubles as a quiet stretch
+ * grows, up to 128 (1 KiB), which covers the 100 half-moves the fifty-move rule
+ * allows. The entries cost 4 bytes a move, so a game with pawn moves or captures
+ * every few moves stays within a few hundred bytes. The ring isn't saved with the
+ * entries; after a load, or after undoing further back than it reaches, it is
+ * refilled by stepping a copy of the board back over the moves once.
+ * <p>
+ * As JSON (e.g. in a LOAD_GAME message) only the recorded entries, the ply and the
+ * two starting counters are written, not the spare capacity of the array.
+ */
+@JsonAdapter(MoveHistory.GsonAdapter.class)
+final class MoveHistory {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MOVE_BITS = 15;
+    private static final int IRREVERSIBLE = 1 << 30;
+    private static final int MIN_KEYS = 8;
+    private static final int MAX_KEYS = 128;
+
+    private int[] entries = new int[INITIAL_CAPACITY];
+    // Entries recorded, including any that were taken back
+    private int length;
+    // Entries currently played on the board
+    private int ply;
+    // Half-move clock when the history started, and now
+    private int startClock;
+    private int halfmoveClock;
+    // Full-move number when the history started
+    private int startMove = 1;
+    // Keys of the positions at plies keysFrom to ply - 1, or null if none are known;
+    // the length is a power of two
+    private transient long[] keys;
+    private transient int keysFrom;
+
+    /**
+     * Records a move just played on the board, dropping anything that was taken back
+     *
+     * @param move the move
+     * @param undo the token ChessBoard.makeMove returned for it
+     * @param key  the Zobrist key of the position before the move
+     */
+    void record(ChessMove move, int undo, long key) {
+        if (ply == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[ply] = PackedMove.of(move) | (ChessBoard.compactUndo(undo) << MOVE_BITS);
+        advance(undo, key);
+        length = ply;
+    }
+
+    /**
+     * Takes the last move played back off the board
+     *
+     * @return the move, or null if there is none
+     */
+    ChessMove undo(ChessBoard board) {
+        if (ply == 0) {
+            return null;
+        }
+        int entry = entries[--ply];
+        ChessMove move = unpack(entry);
+        board.unmakeMove(move, board.expandUndo(move, (entry & ~IRREVERSIBLE) >>> MOVE_BITS));
+
+        if ((entry & IRREVERSIBLE) == 0) {
+            halfmoveClock--;
+        } else {
+            halfmoveClock = clockAt(ply);
+        }
+        keysFrom = Math.min(keysFrom, ply);
+        return move;
+    }
+
+    /**
+     * Plays the last move taken back again
+     *
+     * @param key the Zobrist key of the position before the move
+     * @return the move, or null if there is none
+     */
+    ChessMove redo(ChessBoard board, long key) {
+        if (ply == length) {
+            return null;
+        }
+        ChessMove move = unpack(entries[ply]);
+        advance(board.makeMove(move), key);
+        return move;
+    }
+
+    private void advance(int undo, long key) {
+        if (ChessBoard.isIrreversible(undo)) {
+            entries[ply] |= IRREVERSIBLE;
+            halfmoveClock = 0;
+            // Nothing before a pawn move or capture can repeat, so the ring starts over
+            keysFrom = ++ply;
+            return;
+        }
+        entries[ply] &= ~IRREVERSIBLE;
+        halfmoveClock++;
+        storeKey(key);
+        ply++;
+    }
+
+    private void storeKey(long key) {
+        if (keys == null) {
+            keys = new long[MIN_KEYS];
+            keysFrom = ply;
+        } else if (ply - keysFrom >= keys.length) {
+            if (keys.length < MAX_KEYS) {
+                long[] grown = new long[keys.length * 2];
+                for (int i = keysFrom; i < ply; i++) {
+                    grown[i & (grown.length - 1)] = keys[i & (keys.length - 1)];
+                }
+                keys = grown;
+            } else {
+                keysFrom = ply - keys.length + 1;
+            }
+        }
+        keys[ply & (keys.length - 1)] = key;
+    }
+
+    // Counts back to the last pawn move or capture before a ply
+    private int clockAt(int ply) {
+        for (int i = ply - 1; i >= 0; i--) {
+            if ((entries[i] & IRREVERSIBLE) != 0) {
+                return ply - 1 - i;
+            }
+        }
+        return startClock + ply;
+    }
+
+    /**
+     * @return half-moves since the last pawn move or capture
+     */
+    int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Starts the half-move clock of an empty history somewhere other than 0, as a FEN can
+     */
+    void setStartClock(int clock) {
+        startClock = clock;
+        halfmoveClock = clockAt(ply);
+    }
+
+    /**
+     * @return the full-move number before the first entry
+     */
+    int startMove() {
+        return startMove;
+    }
+
+    /**
+     * Starts the full-move number of a history somewhere other than 1, as a FEN can
+     */
+    void setStartMove(int move) {
+        startMove = move;
+    }
+
+    /**
+     * Counts how many times the position on the board occurred before, as far back as
+     * the last pawn move or capture
+     *
+     * @param board  the board the history was played on
+     * @param toMove the team to move on it
+     * @return earlier occurrences of the position; 2 makes a threefold repetition
+     */
+    int repetitions(ChessBoard board, ChessGame.TeamColor toMove) {
+        int from = repeatableFrom();
+        if (from < ply && (keys == null || keysFrom > from)) {
+            recallKeys(board, toMove, from);
+        }
+
+        // Both teams need to have moved and come back, so the latest candidate is 4 plies ago
+        long key = board.zobristKey(toMove);
+        int count = 0;
+        for (int earlier = ply - 4; earlier >= from; earlier -= 2) {
+            if (keys[earlier & (keys.length - 1)] == key) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the keys of the positions the one on the board could still repeat: those
+     * since the last pawn move or capture, as far back as the ring reaches
+     *
+     * @param board  the board the history was played on
+     * @param toMove the team to move on it
+     * @return the keys, oldest first, without the position on the board
+     */
+    long[] recentKeys(ChessBoard board, ChessGame.TeamColor toMove) {
+        int from = repeatableFrom();
+        if (from < ply && (keys == null || keysFrom > from)) {
+            recallKeys(board, toMove, from);
+        }
+        long[] recent = new long[ply - from];
+        for (int i = from; i < ply; i++) {
+            recent[i - from] = keys[i & (keys.length - 1)];
+        }
+        return recent;
+    }
+
+    // The first ply whose position the current one could repeat, as far back as the ring reaches
+    private int repeatableFrom() {
+        return Math.max(0, ply - Math.min(halfmoveClock, MAX_KEYS - 1));
+    }
+
+    /**
+     * @return an independent copy of this history, including any moves taken back
+     */
+    MoveHistory copy() {
+        MoveHistory copy = new MoveHistory();
+        copy.entries = entries.clone();
+        copy.length = length;
+        copy.ply = ply;
+        copy.startClock = startClock;
+        copy.halfmoveClock = halfmoveClock;
+        copy.startMove = startMove;
+        copy.keys = keys == null ? null : keys.clone();
+        copy.keysFrom = keysFrom;
+        return copy;
+    }
+
+    // Steps a copy of the board back to a ply, recording the keys on the way, so the
+    // board the game is played on and the ply are never touched
+    private void recallKeys(ChessBoard board, ChessGame.TeamColor toMove, int from) {
+        int size = MIN_KEYS;
+        while (size < ply - from) {
+            size *= 2;
+        }
+        long[] recalled = new long[size];
+        ChessBoard past = board.deepCopy();
+        ChessGame.TeamColor team = toMove;
+        for (int i = ply - 1; i >= from; i--) {
+            ChessMove move = unpack(entries[i]);
+            past.unmakeMove(move, past.expandUndo(move, (entries[i] & ~IRREVERSIBLE) >>> MOVE_BITS));
+            team = team.opponent();
+            recalled[i & (size - 1)] = past.zobristKey(team);
+        }
+        keys = recalled;
+        keysFrom = from;
+    }
+
+    int ply() {
+        return ply;
+    }
+
+    int length() {
+        return length;
+    }
+
+    /**
+     * @return the moves played to reach the current ply, oldest first
+     */
+    List<ChessMove> moves() {
+        List<ChessMove> moves = new ArrayList<>(ply);
+        for (int i = 0; i < ply; i++) {
+            moves.add(unpack(entries[i]));
+        }
+        return moves;
+    }
+
+    /**
+     * @return a copy of every entry recorded, including any taken back
+     */
+    int[] entries() {
+        return Arrays.copyOf(entries, length);
+    }
+
+    /**
+     * Replaces the history with entries saved from another one
+     *
+     * @param saved      the entries, as entries returned them
+     * @param ply        how many of them are played on the board
+     * @param startClock the half-move clock before the first of them
+     * @param startMove  the full-move number before the first of them
+     */
+    void load(int[] saved, int ply, int startClock, int startMove) {
+        entries = Arrays.copyOf(saved, Math.max(INITIAL_CAPACITY, saved.length));
+        length = saved.length;
+        this.ply = ply;
+        this.startClock = startClock;
+        this.startMove = startMove;
+        halfmoveClock = clockAt(ply);
+        keys = null;
+    }
+
+    /**
+     * @return the half-move clock before the first entry
+     */
+    int startClock() {
+        return startClock;
+    }
+
+    /**
+     * @return whether an entry could have come from record: a real move and a
+     * capture code in range
+     */
+    static boolean isValidEntry(int entry) {
+        // PackedMove stores the promotion as ordinal + 1; pawns and kings aren't promoted to
+        int promotion = (entry >>> 12) & 0x7;
+        int captured = (entry >>> MOVE_BITS) & 0xF;
+        return PackedMove.from(entry) != PackedMove.to(entry)
+                && (promotion == 0 || (promotion > ChessPiece.PieceType.KING.ordinal() + 1
+                && promotion < ChessPiece.PieceType.PAWN.ordinal() + 1))
+                && captured <= 12 && entry >>> 31 == 0;
+    }
+
+    private static ChessMove unpack(int entry) {
+        return PackedMove.toChessMove(PackedMove.key(entry));
+    }
+
+    /**
+     * Writes a history as {"entries": [...], "ply": n, "startClock": n, "startMove": n}
+     * and reads it back through load
+     */
+    static final class GsonAdapter extends TypeAdapter<MoveHistory> {
+        @Override
+        public void write(JsonWriter out, MoveHistory history) throws IOException {
+            if (history == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("entries").beginArray();
+            for (int i = 0; i < history.length; i++) {
+                out.value(history.entries[i]);
+            }
+            out.endArray();
+            out.name("ply").value(history.ply);
+            out.name("startClock").value(history.startClock);
+            out.name("startMove").value(history.startMove);
+            out.endObject();
+        }
+
+        @Override
+        public MoveHistory read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            int[] saved = new int[0];
+            int ply = 0;
+            int startClock = 0;
+            int startMove = 1;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "entries" -> {
+                        int[] read = new int[INITIAL_CAPACITY];
+                        int count = 0;
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            if (count == read.length) {
+                                read = Arrays.copyOf(read, count * 2);
+                            }
+                            read[count++] = in.nextInt();
+                        }
+                        in.endArray();
+                        saved = Arrays.copyOf(read, count);
+                    }
+                    case "ply" -> ply = in.nextInt();
+                    case "startClock" -> startClock = in.nextInt();
+                    case "startMove" -> startMove = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (ply < 0 || ply > saved.length) {
+                throw new JsonParseException("Move history is at ply " + ply + " of " + saved.length);
+            }
+            for (int entry : saved) {
+                if (!isValidEntry(entry)) {
+                    throw new JsonParseException("Invalid move history entry " + entry);
+                }
+            }
+            MoveHistory history = new MoveHistory();
+            history.load(saved, ply, startClock, Math.max(startMove, 1));
+            return history;
+        }
+    }
+}
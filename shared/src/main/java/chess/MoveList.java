@@ -0,0 +1,101 @@
+package chess;
+
+import java.util.Collection;
+
+/**
+ * A reusable list of moves packed as ints (see PackedMove). A search keeps one per
+ * ply and clears it before each generation, so no move is allocated while it runs.
+ */
+public final class MoveList implements IntMoveSink {
+    /**
+     * More than the most legal moves any chess position has (218)
+     */
+    public static final int CAPACITY = 256;
+
+    // Validation in ChessGame borrows this instead of building a list per call
+    private static final ThreadLocal<MoveList> SCRATCH = ThreadLocal.withInitial(MoveList::new);
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(CAPACITY);
+    }
+
+    MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /**
+     * The calling thread's shared list. Whoever takes it must be finished with it
+     * before anything else on the thread can take it again.
+     */
+    static MoveList scratch() {
+        MoveList list = SCRATCH.get();
+        list.clear();
+        return list;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    /**
+     * Adds the move, so a list can be generated into like any other sink
+     *
+     * @return always true; filling a list never stops generation
+     */
+    @Override
+    public boolean accept(int move) {
+        moves[size++] = move;
+        return true;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public void swap(int first, int second) {
+        int move = moves[first];
+        moves[first] = moves[second];
+        moves[second] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @param key a move packed without flags, as PackedMove.key leaves it
+     * @return the index of the move with that key, or -1 if there is none
+     */
+    public int indexOf(int key) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.key(moves[i]) == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds every move in the list to the collection as a ChessMove
+     */
+    public void addTo(Collection<ChessMove> collection) {
+        for (int i = 0; i < size; i++) {
+            collection.add(PackedMove.toChessMove(moves[i]));
+        }
+    }
+}
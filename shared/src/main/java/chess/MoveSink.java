@@ -0,0 +1,15 @@
+package chess;
+
+/**
+ * Receives generated moves one at a time, so a caller that only needs the first
+ * move, or one particular move, can stop generation there instead of collecting
+ * every move first
+ */
+@FunctionalInterface
+public interface MoveSink {
+    /**
+     * @param move the next move
+     * @return true to keep generating, false to stop
+     */
+    boolean accept(ChessMove move);
+}
@@ -0,0 +1,89 @@
+package chess;
+
+/**
+ * Moves packed into a single int, so move generation and search can work through
+ * millions of them without allocating. ChessMove is only built where a move leaves
+ * for the public API.
+ * <pre>
+ * bits 0-5     start square (a1 = 0, b1 = 1, ..., h8 = 63)
+ * bits 6-11    end square
+ * bits 12-14   promotion piece ordinal + 1, 0 if none
+ * bit 15       CAPTURE, set for every capture including en passant
+ * bit 16       EN_PASSANT
+ * bit 17       CASTLING
+ * </pre>
+ * The low 15 bits are the same as TranspositionTable.packMove, so key(move) can be
+ * compared with moves from the transposition table or the opening book. The flags
+ * are only set by the move generator and are there for move ordering; ChessBoard
+ * works out captures, castling and en passant for itself when a move is made.
+ */
+public final class PackedMove {
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLING = 1 << 17;
+
+    private static final int KEY_MASK = 0x7FFF;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    /**
+     * Packs a move without any flags. No legal move packs to 0.
+     */
+    public static int of(ChessMove move) {
+        int promotion = move.getPromotionPiece() == null ? 0 : move.getPromotionPiece().ordinal() + 1;
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()))
+                | promotion << 12;
+    }
+
+    /**
+     * Packs a move between two squares, numbered a1 = 0 to h8 = 63, without a
+     * promotion or flags
+     */
+    public static int of(int from, int to) {
+        return from | to << 6;
+    }
+
+    static int promoting(int move, ChessPiece.PieceType type) {
+        return move | (type.ordinal() + 1) << 12;
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 7;
+        return promotion == 0 ? null : TYPES[promotion - 1];
+    }
+
+    /**
+     * @return the move without its flags, as TranspositionTable.packMove packs it
+     */
+    public static int key(int move) {
+        return move & KEY_MASK;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    /**
+     * @return the move as the public API hands it out
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(ChessPosition.ofSquare(from(move)), ChessPosition.ofSquare(to(move)), promotion(move));
+    }
+}
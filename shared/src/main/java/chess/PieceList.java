@@ -0,0 +1,75 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * The squares one team's pieces stand on, indexed both ways: square to slot and slot
+ * to square. Adding, removing and moving a piece are constant time with no search,
+ * and walking the slots touches only squares that hold a piece.
+ * <p>
+ * Removing a piece moves the last slot into the hole, so slots aren't stable across
+ * removals.
+ */
+final class PieceList {
+    // Slot of the piece on each square, -1 if none of ours is there
+    private final byte[] slotOf = new byte[64];
+    private byte[] squares = new byte[16];
+    private int size;
+
+    PieceList() {
+        Arrays.fill(slotOf, (byte) -1);
+    }
+
+    /**
+     * @return a list of the pieces on the given squares
+     */
+    static PieceList of(long occupancy) {
+        PieceList list = new PieceList();
+        while (occupancy != 0) {
+            list.add(Long.numberOfTrailingZeros(occupancy));
+            occupancy &= occupancy - 1;
+        }
+        return list;
+    }
+
+    void add(int square) {
+        if (size == squares.length) {
+            squares = Arrays.copyOf(squares, size * 2);
+        }
+        squares[size] = (byte) square;
+        slotOf[square] = (byte) size++;
+    }
+
+    void remove(int square) {
+        int slot = slotOf[square];
+        int last = squares[--size];
+        squares[slot] = (byte) last;
+        slotOf[last] = (byte) slot;
+        slotOf[square] = -1;
+    }
+
+    void move(int from, int to) {
+        int slot = slotOf[from];
+        squares[slot] = (byte) to;
+        slotOf[to] = (byte) slot;
+        slotOf[from] = -1;
+    }
+
+    /**
+     * @return the slot of the piece on a square, or -1 if none of ours is there
+     */
+    int slotOf(int square) {
+        return slotOf[square];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the square of the piece in a slot, from 0 to size() - 1
+     */
+    int square(int slot) {
+        return squares[slot];
+    }
+}
@@ -0,0 +1,177 @@
+package chess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-size hash table of search results keyed by Zobrist key, meant to be
+ * shared by every thread of a search without locks.
+ * <p>
+ * The entries live off the Java heap in a direct buffer, so even a table of
+ * hundreds of megabytes adds nothing for the garbage collector to trace or copy.
+ * Each entry is 16 bytes: the key XORed with the data, then the data. Both words
+ * are read and written with single atomic accesses but no locking, so a reader
+ * can see the two halves of different writes; the XOR then no longer matches
+ * the key and the entry reads as a miss. The data word packs:
+ * <pre>
+ * bits 0-14    best move (see packMove), 0 for none
+ * bits 16-23   depth
+ * bits 24-25   bound (UPPER, LOWER or EXACT); never 0, so 0 means a miss
+ * bits 26-31   search generation, used to replace entries left by old searches
+ * bits 32-63   score
+ * </pre>
+ */
+public final class TranspositionTable {
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    public static final int ENTRY_BYTES = 16;
+    /**
+     * System property holding the table size in megabytes for tables sized from
+     * configuration, e.g. {@code -Dchess.hash.mb=256}
+     */
+    public static final String SIZE_PROPERTY = "chess.hash.mb";
+    public static final int DEFAULT_MEGABYTES = 16;
+    // A direct buffer is indexed by int, so stay well clear of 2 GB
+    public static final int MAX_MEGABYTES = 1024;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer entries;
+    private final int mask;
+    private int generation;
+
+    /**
+     * Allocates a table of at most the given size. The number of entries is rounded
+     * down to a power of two.
+     *
+     * @param megabytes the size of the table, between 1 and MAX_MEGABYTES
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("Table size must be between 1 and " + MAX_MEGABYTES + " MB");
+        }
+        int size = Integer.highestOneBit(megabytes * (1024 * 1024 / ENTRY_BYTES));
+        entries = ByteBuffer.allocateDirect(size * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+        mask = size - 1;
+    }
+
+    /**
+     * @return a table sized by the chess.hash.mb system property, or DEFAULT_MEGABYTES
+     */
+    public static TranspositionTable fromConfiguration() {
+        return new TranspositionTable(Integer.getInteger(SIZE_PROPERTY, DEFAULT_MEGABYTES));
+    }
+
+    /**
+     * @return the data stored for the key, or 0 if there is none
+     */
+    public long probe(long key) {
+        int offset = offset(key);
+        long check = (long) LONGS.getOpaque(entries, offset);
+        long data = (long) LONGS.getOpaque(entries, offset + 8);
+        return (check ^ data) == key ? data : 0;
+    }
+
+    /**
+     * Records a search result. A deeper result stored for the same position during
+     * the current search is kept instead.
+     *
+     * @param key   the position's Zobrist key
+     * @param depth the depth searched, 0-255
+     * @param score the score, with mates relative to the position
+     * @param bound whether the score is an UPPER or LOWER bound, or EXACT
+     * @param move  the best move packed by packMove, or 0 to keep the stored one
+     */
+    public void store(long key, int depth, int score, int bound, int move) {
+        int offset = offset(key);
+        long oldData = (long) LONGS.getOpaque(entries, offset + 8);
+        boolean sameKey = ((long) LONGS.getOpaque(entries, offset) ^ oldData) == key;
+
+        if (sameKey && generation(oldData) == generation && depth(oldData) > depth) {
+            return;
+        }
+        if (move == 0 && sameKey) {
+            move = move(oldData);
+        }
+
+        long data = move
+                | (long) depth << 16
+                | (long) bound << 24
+                | (long) generation << 26
+                | (long) score << 32;
+        LONGS.setOpaque(entries, offset, key ^ data);
+        LONGS.setOpaque(entries, offset + 8, data);
+    }
+
+    /**
+     * Writes the two words of the key's entry as given, e.g. to leave one half of
+     * each of two racing stores
+     */
+    void storeWords(long key, long check, long data) {
+        int offset = offset(key);
+        LONGS.setOpaque(entries, offset, check);
+        LONGS.setOpaque(entries, offset + 8, data);
+    }
+
+    /**
+     * Marks the start of a new search, so entries from earlier searches get replaced
+     * first. Only call this while no thread is using the table.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0x3F;
+    }
+
+    /**
+     * Empties the table. Only call this while no thread is using the table.
+     */
+    public void clear() {
+        for (int offset = 0; offset < entries.capacity(); offset += 8) {
+            entries.putLong(offset, 0);
+        }
+    }
+
+    /**
+     * @return the number of entries the table holds
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    private int offset(long key) {
+        return ((int) key & mask) * ENTRY_BYTES;
+    }
+
+    public static int move(long data) {
+        return (int) data & 0x7FFF;
+    }
+
+    public static int depth(long data) {
+        return (int) (data >>> 16) & 0xFF;
+    }
+
+    public static int bound(long data) {
+        return (int) (data >>> 24) & 0x3;
+    }
+
+    public static int score(long data) {
+        return (int) (data >>> 32);
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 26) & 0x3F;
+    }
+
+    /**
+     * Packs a move into 15 bits: start square, end square and promotion piece.
+     * No legal move packs to 0. This is PackedMove.of, which search moves match
+     * through PackedMove.key.
+     */
+    public static int packMove(ChessMove move) {
+        return PackedMove.of(move);
+    }
+}
@@ -0,0 +1,41 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the keys of
+ * every (piece, square) pair on the board, the castling rights and en passant
+ * file, plus the side-to-move key when black is to move, so a move updates it
+ * with a couple of XORs instead of a rescan.
+ * <p>
+ * The generator is seeded with a constant so keys are identical in every process;
+ * that way keys can be persisted and compared between the client and server.
+ */
+final class Zobrist {
+    private static final long SEED = 0x240C4E55L;
+
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long SIDE_TO_MOVE;
+    // Indexed by the four castling right bits together, so any set of rights is one lookup
+    static final long[] CASTLING = new long[16];
+    static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int piece = 0; piece < 12; piece++) {
+            for (int square = 0; square < 64; square++) {
+                PIECE_SQUARE[piece][square] = random.nextLong();
+            }
+        }
+        SIDE_TO_MOVE = random.nextLong();
+        for (int rights = 1; rights < 16; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < 8; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+}
@@ -0,0 +1,19 @@
+package chess.pgn;
+
+import java.io.IOException;
+
+/**
+ * Indicates PGN input that could not be parsed, or a move in it that is not
+ * legal in the position it was played from
+ */
+public class PgnException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public PgnException(String message) {
+        super(message);
+    }
+
+    public PgnException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
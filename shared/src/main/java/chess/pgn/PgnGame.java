@@ -0,0 +1,30 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game read from or written to PGN
+ *
+ * @param tags   the tag pairs, in file order (e.g. Event, White, Black, Result, FEN)
+ * @param moves  the main line, from the starting position
+ * @param result the game termination marker: "1-0", "0-1", "1/2-1/2" or "*"
+ */
+public record PgnGame(Map<String, String> tags, List<ChessMove> moves, String result) {
+
+    /**
+     * @return a game set up at this game's starting position (its FEN tag, if any)
+     * @throws IllegalArgumentException if the FEN tag is malformed
+     */
+    public ChessGame startingPosition() {
+        return startingPosition(tags);
+    }
+
+    static ChessGame startingPosition(Map<String, String> tags) {
+        String fen = tags.get("FEN");
+        return fen == null ? new ChessGame() : ChessGame.fromFen(fen);
+    }
+}
@@ -0,0 +1,251 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads games one at a time from a PGN stream. Only the game currently being
+ * parsed is held in memory, so arbitrarily large files can be imported.
+ * <p>
+ * Each SAN move is resolved against the legal moves of the position it is played
+ * from. Comments, NAGs, recursive variations and escape lines are skipped.
+ */
+public class PgnReader implements Closeable {
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private boolean lineStart = true;
+    private final StringBuilder token = new StringBuilder(16);
+
+    public PgnReader(Reader in) {
+        this.in = in;
+    }
+
+    public PgnReader(ReadableByteChannel channel) {
+        this(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the next game
+     *
+     * @return the game, or null once the stream is exhausted
+     * @throws PgnException if the game is malformed or contains an illegal move
+     * @throws IOException  if the underlying stream fails
+     */
+    public PgnGame readGame() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int c = skipWhitespace();
+        while (c == '[') {
+            next();
+            readTag(tags);
+            c = skipWhitespace();
+        }
+        if (c == EOF && tags.isEmpty()) {
+            return null;
+        }
+
+        ChessGame game;
+        try {
+            game = PgnGame.startingPosition(tags);
+        } catch (IllegalArgumentException e) {
+            throw new PgnException(e.getMessage(), e);
+        }
+
+        List<ChessMove> moves = new ArrayList<>();
+        String result = "*";
+        while (true) {
+            c = skipWhitespace();
+            if (c == EOF || c == '[') {
+                // Unterminated movetext; the next game (if any) starts here
+                break;
+            }
+            if (c == '{') {
+                skipPast('}');
+            } else if (c == ';') {
+                skipPast('\n');
+            } else if (c == '(') {
+                skipVariation();
+            } else {
+                readToken();
+                if (isResult(token)) {
+                    result = token.toString();
+                    break;
+                }
+                if (token.charAt(0) == '$' || isMoveNumber(token)) {
+                    continue;
+                }
+
+                ChessMove move = San.parse(game, stripMoveNumber(token));
+                try {
+                    game.makeMove(move);
+                } catch (InvalidMoveException e) {
+                    throw new PgnException("Illegal move: " + token, e);
+                }
+                moves.add(move);
+            }
+        }
+
+        return new PgnGame(tags, moves, result);
+    }
+
+    private void readTag(Map<String, String> tags) throws IOException {
+        skipWhitespace();
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && !Character.isWhitespace(c) && c != '"' && c != ']') {
+            token.append((char) next());
+        }
+        String name = token.toString();
+
+        if (skipWhitespace() != '"') {
+            throw new PgnException("Malformed tag pair: " + name);
+        }
+        next();
+        token.setLength(0);
+        while ((c = next()) != '"') {
+            if (c == EOF) {
+                throw new PgnException("Unterminated tag value: " + name);
+            }
+            if (c == '\\') {
+                c = next();
+            }
+            token.append((char) c);
+        }
+
+        if (skipWhitespace() != ']') {
+            throw new PgnException("Malformed tag pair: " + name);
+        }
+        next();
+        tags.put(name, token.toString());
+    }
+
+    private void readToken() throws IOException {
+        token.setLength(0);
+        int c;
+        while ((c = peek()) != EOF && !Character.isWhitespace(c)
+                && c != '{' && c != '(' && c != ')' && c != ';' && c != '[') {
+            token.append((char) next());
+        }
+        if (token.isEmpty()) {
+            throw new PgnException("Unexpected '" + (char) c + "' in movetext");
+        }
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 0;
+        int c;
+        do {
+            c = next();
+            if (c == EOF) {
+                throw new PgnException("Unterminated variation");
+            } else if (c == '{') {
+                skipPast('}');
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+        } while (depth > 0);
+    }
+
+    private void skipPast(char terminator) throws IOException {
+        int c;
+        do {
+            c = next();
+        } while (c != terminator && c != EOF);
+    }
+
+    /**
+     * Skips whitespace and '%' escape lines
+     *
+     * @return the next character, which is left unread
+     */
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != EOF) {
+            if (lineStart && c == '%') {
+                skipPast('\n');
+            } else if (Character.isWhitespace(c)) {
+                next();
+            } else {
+                break;
+            }
+        }
+        return c;
+    }
+
+    private static boolean isResult(CharSequence token) {
+        return "1-0".contentEquals(token) || "0-1".contentEquals(token)
+                || "1/2-1/2".contentEquals(token) || "*".contentEquals(token);
+    }
+
+    private static boolean isMoveNumber(CharSequence token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0) {
+            return false;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return i == token.length();
+    }
+
+    // Handles move numbers written without a space, e.g. "12.Nf3" or "12...Nf6"
+    private static CharSequence stripMoveNumber(StringBuilder token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.subSequence(i, token.length());
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int next() throws IOException {
+        int c = peek();
+        if (c != EOF) {
+            position++;
+            lineStart = c == '\n';
+        }
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
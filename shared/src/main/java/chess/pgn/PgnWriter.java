@@ -0,0 +1,124 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN, one after another, to a character stream. Moves are
+ * replayed from the starting position to produce their SAN, including check and
+ * mate markers.
+ */
+public class PgnWriter implements Closeable, Flushable {
+    private static final int LINE_WIDTH = 80;
+    private static final List<String> SEVEN_TAG_ROSTER =
+            List.of("Event", "Site", "Date", "Round", "White", "Black", "Result");
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_WIDTH + 16);
+    private final StringBuilder san = new StringBuilder(16);
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes one game: its tag pairs (the Seven Tag Roster first), a blank line,
+     * then the movetext wrapped at 80 columns and terminated by the result
+     *
+     * @param game the game to write
+     * @throws PgnException if one of the moves is not legal where it is played
+     * @throws IOException  if the underlying stream fails
+     */
+    public void writeGame(PgnGame game) throws IOException {
+        Map<String, String> tags = game.tags();
+        for (String name : SEVEN_TAG_ROSTER) {
+            String value = name.equals("Result") ? game.result() : tags.getOrDefault(name, "?");
+            writeTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!SEVEN_TAG_ROSTER.contains(tag.getKey())) {
+                writeTag(tag.getKey(), tag.getValue());
+            }
+        }
+        out.write('\n');
+
+        ChessGame replay;
+        try {
+            replay = game.startingPosition();
+        } catch (IllegalArgumentException e) {
+            throw new PgnException(e.getMessage(), e);
+        }
+
+        // Move numbers carry on from the FEN tag's full-move number, if there is one
+        boolean first = true;
+        line.setLength(0);
+        for (ChessMove move : game.moves()) {
+            ChessGame.TeamColor mover = replay.getTeamTurn();
+            if (mover == ChessGame.TeamColor.WHITE) {
+                appendWord(replay.getFullmoveNumber() + ".");
+            } else if (first) {
+                appendWord(replay.getFullmoveNumber() + "...");
+            }
+            first = false;
+
+            san.setLength(0);
+            San.format(replay, move, san);
+            try {
+                replay.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new PgnException("Illegal move " + san + ": " + e.getMessage(), e);
+            }
+            ChessGame.TeamColor opponent = mover.opponent();
+            if (replay.isInCheckmate(opponent)) {
+                san.append('#');
+            } else if (replay.isInCheck(opponent)) {
+                san.append('+');
+            }
+            appendWord(san);
+        }
+        appendWord(game.result());
+        out.append(line).append("\n\n");
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+            }
+            out.write(c);
+        }
+        out.append("\"]\n");
+    }
+
+    private void appendWord(CharSequence word) throws IOException {
+        if (!line.isEmpty()) {
+            if (line.length() + 1 + word.length() > LINE_WIDTH) {
+                out.append(line).append('\n');
+                line.setLength(0);
+            } else {
+                line.append(' ');
+            }
+        }
+        line.append(word);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,188 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Collection;
+
+/**
+ * Standard Algebraic Notation, resolved against the legal moves of a game
+ */
+final class San {
+    private static final String PIECE_LETTERS = "KQBNR";
+
+    private San() {
+    }
+
+    /**
+     * Finds the legal move a SAN token refers to
+     *
+     * @param game the game, at the position the move is played from
+     * @param san  the move, e.g. "e4", "Nbd7", "exd8=Q+"
+     * @return the matching legal move
+     * @throws PgnException if the token is malformed, illegal or ambiguous
+     */
+    static ChessMove parse(ChessGame game, CharSequence san) throws PgnException {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (end > 0 && (san.charAt(0) == 'O' || san.charAt(0) == '0')) {
+            return parseCastling(game, san, end);
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (end >= 2 && PIECE_LETTERS.indexOf(san.charAt(end - 1)) > 0) {
+            promotion = pieceType(san.charAt(end - 1));
+            end--;
+            if (san.charAt(end - 1) == '=') {
+                end--;
+            }
+        }
+        if (end < 2) {
+            throw new PgnException("Malformed move: " + san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (PIECE_LETTERS.indexOf(san.charAt(0)) >= 0) {
+            type = pieceType(san.charAt(0));
+            start = 1;
+        }
+
+        int toCol = san.charAt(end - 2) - 'a' + 1;
+        int toRow = san.charAt(end - 1) - '0';
+        if (toCol < 1 || toCol > 8 || toRow < 1 || toRow > 8) {
+            throw new PgnException("Malformed move: " + san);
+        }
+
+        // Whatever sits between the piece letter and the destination is disambiguation
+        int fromCol = 0;
+        int fromRow = 0;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromCol = c - 'a' + 1;
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '0';
+            } else if (c != 'x' && c != '-') {
+                throw new PgnException("Malformed move: " + san);
+            }
+        }
+
+        ChessPosition to = ChessPosition.of(toRow, toCol);
+        ChessMove found = null;
+        for (ChessMove move : game.allLegalMoves(game.getTeamTurn())) {
+            ChessPosition from = move.getStartPosition();
+            if (!move.getEndPosition().equals(to)
+                    || move.getPromotionPiece() != promotion
+                    || game.getBoard().getPiece(from).getPieceType() != type
+                    || (fromCol != 0 && from.getColumn() != fromCol)
+                    || (fromRow != 0 && from.getRow() != fromRow)) {
+                continue;
+            }
+            if (found != null) {
+                throw new PgnException("Ambiguous move: " + san);
+            }
+            found = move;
+        }
+        if (found == null) {
+            throw new PgnException("Illegal move: " + san);
+        }
+        return found;
+    }
+
+    /**
+     * Castling is written as the king's move: O-O two squares toward the h-file rook,
+     * O-O-O two squares toward the a-file rook
+     */
+    private static ChessMove parseCastling(ChessGame game, CharSequence san, int end) throws PgnException {
+        String token = san.subSequence(0, end).toString().replace('0', 'O');
+        int direction = switch (token) {
+            case "O-O" -> 1;
+            case "O-O-O" -> -1;
+            default -> throw new PgnException("Malformed move: " + san);
+        };
+
+        for (ChessMove move : game.allLegalMoves(game.getTeamTurn())) {
+            ChessPosition from = move.getStartPosition();
+            if (game.getBoard().getPiece(from).getPieceType() == ChessPiece.PieceType.KING
+                    && move.getEndPosition().getColumn() - from.getColumn() == 2 * direction) {
+                return move;
+            }
+        }
+        throw new PgnException("Illegal move: " + san);
+    }
+
+    /**
+     * Writes a legal move in SAN, without the check or mate suffix (which depends
+     * on the position after the move)
+     */
+    static void format(ChessGame game, ChessMove move, StringBuilder out) {
+        ChessPosition from = move.getStartPosition();
+        ChessPosition to = move.getEndPosition();
+        ChessPiece piece = game.getBoard().getPiece(from);
+        boolean capture = game.getBoard().getPiece(to) != null;
+
+        if (piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to.getColumn() - from.getColumn()) == 2) {
+            out.append(to.getColumn() > from.getColumn() ? "O-O" : "O-O-O");
+            return;
+        }
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (capture || from.getColumn() != to.getColumn()) {
+                out.append(file(from)).append('x');
+            }
+        } else {
+            out.append(PIECE_LETTERS.charAt(piece.getPieceType().ordinal()));
+            appendDisambiguation(game, move, piece, out);
+            if (capture) {
+                out.append('x');
+            }
+        }
+
+        out.append(file(to)).append((char) ('0' + to.getRow()));
+        if (move.getPromotionPiece() != null) {
+            out.append('=').append(PIECE_LETTERS.charAt(move.getPromotionPiece().ordinal()));
+        }
+    }
+
+    private static void appendDisambiguation(ChessGame game, ChessMove move, ChessPiece piece, StringBuilder out) {
+        ChessPosition from = move.getStartPosition();
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRow = false;
+
+        Collection<ChessMove> legalMoves = game.allLegalMoves(piece.getTeamColor());
+        for (ChessMove other : legalMoves) {
+            ChessPosition otherFrom = other.getStartPosition();
+            if (otherFrom.equals(from) || !other.getEndPosition().equals(move.getEndPosition())
+                    || !piece.equals(game.getBoard().getPiece(otherFrom))) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= otherFrom.getColumn() == from.getColumn();
+            sameRow |= otherFrom.getRow() == from.getRow();
+        }
+
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            out.append(file(from));
+        } else if (!sameRow) {
+            out.append((char) ('0' + from.getRow()));
+        } else {
+            out.append(file(from)).append((char) ('0' + from.getRow()));
+        }
+    }
+
+    private static char file(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1);
+    }
+
+    private static ChessPiece.PieceType pieceType(char letter) {
+        return ChessPiece.PieceType.values()[PIECE_LETTERS.indexOf(letter)];
+    }
+}
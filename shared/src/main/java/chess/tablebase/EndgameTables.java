@@ -0,0 +1,206 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distance-to-mate tables for endgames with few pieces, memory-mapped from the
+ * files TablebaseGenerator writes. Probing is a read of one mapped byte, and
+ * every process that opens the same files shares them in the page cache.
+ * <p>
+ * A table file is a 16-byte header (int magic "CHTB", int version, one byte per
+ * slot holding pieceIndex + 1 or 0 if unused, int unused) followed by one byte
+ * per index of its Material. Each byte describes the position for the side to move:
+ * <pre>
+ * 0          draw (or an illegal position)
+ * odd n      win, mate in n plies
+ * even n     loss, mated in n - 2 plies (2 is checkmate on the board)
+ * </pre>
+ * The tables are built without castling rights or en passant targets, so a position
+ * with either isn't looked up: its value could be wrong. Lookups only read the
+ * mappings, so the tables can be shared by any number of threads.
+ */
+public final class EndgameTables implements Closeable {
+    public static final int NOT_FOUND = -1;
+    public static final int DRAW = 0;
+
+    static final int MAGIC = 0x43485442;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final String EXTENSION = ".egtb";
+
+    private record Table(Material material, MappedByteBuffer values) {
+    }
+
+    private final List<FileChannel> channels;
+    private final Map<Integer, Table> tables;
+
+    private EndgameTables(List<FileChannel> channels, Map<Integer, Table> tables) {
+        this.channels = channels;
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file in a directory
+     *
+     * @param directory the directory TablebaseGenerator wrote the tables to
+     * @return the tables
+     * @throws IOException if a table can't be read or is corrupt
+     */
+    public static EndgameTables open(Path directory) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        Map<Integer, Table> tables = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : files) {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.add(channel);
+                Table table = map(file, channel);
+                tables.put(materialKey(table.material()), table);
+            }
+        } catch (IOException | RuntimeException e) {
+            for (FileChannel channel : channels) {
+                channel.close();
+            }
+            throw e;
+        }
+        return new EndgameTables(channels, tables);
+    }
+
+    private static Table map(Path file, FileChannel channel) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            throw new IOException("Not an endgame table: " + file);
+        }
+        MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (mapping.getInt(0) != MAGIC) {
+            throw new IOException("Not an endgame table: " + file);
+        }
+        if (mapping.getInt(4) != VERSION) {
+            throw new IOException("Unsupported endgame table version " + mapping.getInt(4) + ": " + file);
+        }
+
+        List<Integer> pieces = new ArrayList<>();
+        for (int slot = 0; slot < Material.MAX_PIECES; slot++) {
+            int code = mapping.get(8 + slot);
+            if (code != 0) {
+                pieces.add(code - 1);
+            }
+        }
+        Material material;
+        try {
+            material = Material.of(pieces.stream().mapToInt(Integer::intValue).toArray(), file.toString());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt endgame table header: " + file, e);
+        }
+        if (mapping.capacity() != HEADER_BYTES + (long) material.positions()) {
+            throw new IOException("Endgame table is truncated: " + file);
+        }
+        return new Table(material, mapping);
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param board  the position
+     * @param toMove whose turn it is
+     * @return the table's value for the position, or NOT_FOUND if there is no table for its
+     * material or the position has castling rights or an en passant target
+     */
+    public int probe(ChessBoard board, ChessGame.TeamColor toMove) {
+        if (board.pieceCount() > Material.MAX_PIECES || board.getCastlingRights() != 0
+                || board.getEnPassantTarget() != null) {
+            return NOT_FOUND;
+        }
+        Table table = tables.get(materialKey(board));
+        if (table == null) {
+            return NOT_FOUND;
+        }
+        return table.values().get(HEADER_BYTES + table.material().index(board, toMove)) & 0xFF;
+    }
+
+    /**
+     * Looks up the current position of a game
+     *
+     * @param game the game
+     * @return the outcome with best play for the side to move, or null if there is no
+     * table for the position (see probe(ChessBoard, TeamColor))
+     */
+    public TablebaseResult probe(ChessGame game) {
+        int value = probe(game.getBoard(), game.getTeamTurn());
+        if (value == NOT_FOUND) {
+            return null;
+        }
+        TablebaseResult.Outcome outcome = isWin(value) ? TablebaseResult.Outcome.WIN
+                : isLoss(value) ? TablebaseResult.Outcome.LOSS : TablebaseResult.Outcome.DRAW;
+        return new TablebaseResult(outcome, plies(value));
+    }
+
+    /**
+     * @return True if a probed value is a win for the side to move
+     */
+    public static boolean isWin(int value) {
+        return (value & 1) != 0;
+    }
+
+    /**
+     * @return True if a probed value is a loss for the side to move
+     */
+    public static boolean isLoss(int value) {
+        return value >= 2 && (value & 1) == 0;
+    }
+
+    /**
+     * @return plies until mate for a won or lost value, 0 for a draw
+     */
+    public static int plies(int value) {
+        return isWin(value) ? value : isLoss(value) ? value - 2 : 0;
+    }
+
+    /**
+     * @return the number of tables loaded
+     */
+    public int size() {
+        return tables.size();
+    }
+
+    // Two bits per non-king piece kind: how many of it are on the board
+    private static int materialKey(ChessBoard board) {
+        int key = 0;
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                if (type != ChessPiece.PieceType.KING) {
+                    key = (key << 2) | Math.min(3, Long.bitCount(board.pieces(color, type)));
+                }
+            }
+        }
+        return key;
+    }
+
+    private static int materialKey(Material material) {
+        ChessBoard board = new ChessBoard();
+        for (int slot = 0; slot < material.pieceCount(); slot++) {
+            board.addPiece(Material.position(slot), material.piece(slot));
+        }
+        return materialKey(board);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels) {
+            channel.close();
+        }
+    }
+}
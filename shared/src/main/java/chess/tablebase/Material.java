@@ -0,0 +1,216 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.util.Arrays;
+
+/**
+ * The set of pieces an endgame table covers, e.g. KQvK or KRvKP, and the
+ * mapping between its positions and table indexes.
+ * <p>
+ * Pieces are kept in a fixed slot order: white before black, and within a
+ * color by PieceType (king, queen, bishop, knight, rook, pawn). A position is
+ * indexed as side to move, then the square of each slot, in base 64:
+ * <pre>
+ * index = ((side * 64 + square0) * 64 + square1) * 64 + ...
+ * </pre>
+ * Squares are numbered (row - 1) * 8 + (col - 1). Two slots holding the same kind
+ * of piece make some positions appear twice with the slots swapped; both copies
+ * get the same value, so any assignment of those pieces to slots can be probed.
+ */
+public final class Material {
+    /**
+     * Largest number of pieces, kings included, that tables are built for
+     */
+    public static final int MAX_PIECES = 4;
+
+    private static final String LETTERS = "KQBNRP";
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    // pieceIndex (color * 6 + type) of each slot
+    private final int[] slots;
+    private final String name;
+
+    private Material(int[] slots) {
+        this.slots = slots;
+        StringBuilder builder = new StringBuilder(slots.length + 1);
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slot > 0 && slots[slot] >= 6 && slots[slot - 1] < 6) {
+                builder.append('v');
+            }
+            builder.append(LETTERS.charAt(slots[slot] % 6));
+        }
+        name = builder.toString();
+    }
+
+    /**
+     * Parses a material name: the white pieces, "v", then the black pieces, e.g. "KQvK"
+     *
+     * @throws IllegalArgumentException if the name is malformed, doesn't have exactly one
+     *                                  king per side or has more than MAX_PIECES pieces
+     */
+    public static Material parse(String name) {
+        int separator = name.indexOf('v');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Material must look like KQvK: " + name);
+        }
+        int[] slots = new int[name.length() - 1];
+        int slot = 0;
+        for (int i = 0; i < name.length(); i++) {
+            if (i == separator) {
+                continue;
+            }
+            int type = LETTERS.indexOf(name.charAt(i));
+            if (type < 0) {
+                throw new IllegalArgumentException("Unknown piece '" + name.charAt(i) + "' in " + name);
+            }
+            slots[slot++] = (i < separator ? 0 : 6) + type;
+        }
+        return of(slots, name);
+    }
+
+    /**
+     * @return the material on the board, or null if it has more than MAX_PIECES pieces
+     * or doesn't have exactly one king per side
+     */
+    public static Material of(ChessBoard board) {
+        if (board.pieceCount() > MAX_PIECES) {
+            return null;
+        }
+        int[] slots = new int[board.pieceCount()];
+        int slot = 0;
+        for (int pieceIndex = 0; pieceIndex < 12; pieceIndex++) {
+            for (int count = Long.bitCount(pieces(board, pieceIndex)); count > 0; count--) {
+                slots[slot++] = pieceIndex;
+            }
+        }
+        if (Long.bitCount(pieces(board, 0)) != 1 || Long.bitCount(pieces(board, 6)) != 1) {
+            return null;
+        }
+        return new Material(slots);
+    }
+
+    static Material of(int[] pieceIndexes, String description) {
+        int[] slots = pieceIndexes.clone();
+        Arrays.sort(slots);
+        long whiteKings = Arrays.stream(slots).filter(p -> p == 0).count();
+        long blackKings = Arrays.stream(slots).filter(p -> p == 6).count();
+        if (whiteKings != 1 || blackKings != 1) {
+            throw new IllegalArgumentException("Each side needs exactly one king: " + description);
+        }
+        if (slots.length > MAX_PIECES) {
+            throw new IllegalArgumentException("At most " + MAX_PIECES + " pieces are supported: " + description);
+        }
+        return new Material(slots);
+    }
+
+    /**
+     * @return the name, e.g. "KQvK"
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @return the number of pieces, kings included
+     */
+    public int pieceCount() {
+        return slots.length;
+    }
+
+    /**
+     * @return the number of indexes, legal positions or not
+     */
+    public int positions() {
+        return 2 << (6 * slots.length);
+    }
+
+    int pieceIndex(int slot) {
+        return slots[slot];
+    }
+
+    ChessPiece piece(int slot) {
+        return ChessPiece.of(color(slots[slot]), TYPES[slots[slot] % 6]);
+    }
+
+    /**
+     * @return the material with one piece removed, or replaced by another
+     */
+    Material replace(int slot, int pieceIndex) {
+        int[] changed = pieceIndex < 0 ? new int[slots.length - 1] : slots.clone();
+        if (pieceIndex < 0) {
+            for (int from = 0, to = 0; from < slots.length; from++) {
+                if (from != slot) {
+                    changed[to++] = slots[from];
+                }
+            }
+        } else {
+            changed[slot] = pieceIndex;
+        }
+        return of(changed, name);
+    }
+
+    /**
+     * Indexes a position. The board must hold exactly this material.
+     */
+    int index(ChessBoard board, ChessGame.TeamColor toMove) {
+        int index = toMove.ordinal();
+        long remaining = 0;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (slot == 0 || slots[slot] != slots[slot - 1]) {
+                remaining = pieces(board, slots[slot]);
+            }
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            index = (index << 6) | square;
+        }
+        return index;
+    }
+
+    int square(int index, int slot) {
+        return (index >>> (6 * (slots.length - 1 - slot))) & 63;
+    }
+
+    ChessGame.TeamColor sideToMove(int index) {
+        return (index >>> (6 * slots.length)) == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return the index with one slot's square changed and the other side to move
+     */
+    int unmove(int index, int slot, int square) {
+        int shift = 6 * (slots.length - 1 - slot);
+        int flipped = index ^ (1 << (6 * slots.length));
+        return (flipped & ~(63 << shift)) | (square << shift);
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+    }
+
+    static ChessGame.TeamColor color(int pieceIndex) {
+        return pieceIndex < 6 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    private static long pieces(ChessBoard board, int pieceIndex) {
+        return board.pieces(color(pieceIndex), TYPES[pieceIndex % 6]);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Material material && Arrays.equals(slots, material.slots);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(slots);
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,502 @@
+package chess.tablebase;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.PackedMove;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds distance-to-mate endgame tables by retrograde analysis.
+ * <p>
+ * Generating a table takes two passes over its positions, both run in parallel
+ * on a fork/join pool:
+ * <ol>
+ * <li>Every position is set up on a ChessBoard and its legal moves generated.
+ * Mates and stalemates are final right away. Captures and promotions leave the
+ * table, so they are looked up in the smaller tables generated before it. The
+ * remaining moves are only counted.</li>
+ * <li>Results then spread backwards one ply at a time. When a position is found
+ * lost, every position that can move into it is won one ply later. When a
+ * position is found won, every position that can move into it has one fewer
+ * move left to try, and when a position runs out of moves it is lost. The
+ * positions that can move into one are found by "unmoving" each piece of the
+ * side that just moved with the ordinary ChessPiece move rules.</li>
+ * </ol>
+ * Whatever is still unresolved at the end is a draw. Castling and en passant are
+ * left out: positions are set up without castling rights or an en passant target,
+ * as "unmoving" can't tell how the pieces got there.
+ * <p>
+ * Run it as a tool: {@code TablebaseGenerator <output dir> <material>...}, e.g.
+ * {@code TablebaseGenerator tables KQvK KRvK KPvK}. The tables each one depends
+ * on are generated and written too.
+ */
+public class TablebaseGenerator {
+    private static final VarHandle BYTES = MethodHandles.arrayElementVarHandle(byte[].class);
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+
+    // Positions handled by one fork/join leaf task
+    private static final int CHUNK = 4096;
+    // exits[] value when a capture or promotion wins or draws, so the position can't be lost
+    private static final byte NOT_LOST = (byte) 0xFF;
+
+    private final ForkJoinPool pool;
+    private final Map<Material, byte[]> tables = new LinkedHashMap<>();
+
+    public TablebaseGenerator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public TablebaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Generates the table for a material set, and the tables it depends on
+     *
+     * @param material the material, with at most Material.MAX_PIECES pieces
+     * @return the values of every index of the table (see EndgameTables)
+     */
+    public byte[] generate(Material material) {
+        byte[] values = tables.get(material);
+        if (values != null) {
+            return values;
+        }
+        for (Material dependency : dependencies(material)) {
+            generate(dependency);
+        }
+        values = new Generation(material).run();
+        tables.put(material, values);
+        return values;
+    }
+
+    /**
+     * Writes every table generated so far, one file per material named like KQvK.egtb
+     *
+     * @param directory where to write the tables; created if missing
+     * @throws IOException if a table can't be written
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Material, byte[]> table : tables.entrySet()) {
+            write(directory.resolve(table.getKey().name() + EndgameTables.EXTENSION), table.getKey(), table.getValue());
+        }
+    }
+
+    private static void write(Path path, Material material, byte[] values) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(EndgameTables.HEADER_BYTES);
+        header.putInt(EndgameTables.MAGIC).putInt(EndgameTables.VERSION);
+        for (int slot = 0; slot < Material.MAX_PIECES; slot++) {
+            header.put((byte) (slot < material.pieceCount() ? material.pieceIndex(slot) + 1 : 0));
+        }
+        header.putInt(0).flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer buffer : new ByteBuffer[]{header, ByteBuffer.wrap(values)}) {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every smaller material set a capture or promotion can lead to, except bare kings
+     */
+    private static List<Material> dependencies(Material material) {
+        List<Material> dependencies = new ArrayList<>();
+        for (int slot = 0; slot < material.pieceCount(); slot++) {
+            int pieceIndex = material.pieceIndex(slot);
+            if (pieceIndex % 6 == ChessPiece.PieceType.KING.ordinal()) {
+                continue;
+            }
+            dependencies.add(material.replace(slot, -1));
+            if (pieceIndex % 6 == ChessPiece.PieceType.PAWN.ordinal()) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    Material promoted = material.replace(slot, (pieceIndex / 6) * 6 + promotion.ordinal());
+                    dependencies.add(promoted);
+                    // Promoting with a capture
+                    for (int captured = 0; captured < promoted.pieceCount(); captured++) {
+                        int capturedIndex = promoted.pieceIndex(captured);
+                        if (capturedIndex / 6 != pieceIndex / 6 && capturedIndex % 6 != 0) {
+                            dependencies.add(promoted.replace(captured, -1));
+                        }
+                    }
+                }
+            }
+        }
+        dependencies.removeIf(dependency -> dependency.pieceCount() == 2);
+        return dependencies.stream().distinct().toList();
+    }
+
+    /**
+     * Looks up the value of a position reached by a capture or promotion
+     */
+    private int exitValue(ChessBoard board, ChessGame.TeamColor toMove) {
+        Material material = Material.of(board);
+        if (material.pieceCount() == 2) {
+            return EndgameTables.DRAW;
+        }
+        return tables.get(material)[material.index(board, toMove)] & 0xFF;
+    }
+
+    /**
+     * The working state for generating one table
+     */
+    private final class Generation {
+        private final Material material;
+        private final int positions;
+        private final byte[] values;
+        // Moves that stay in the table and aren't known to lose yet
+        private final byte[] remaining;
+        // Plies to the longest mate among losing captures and promotions, plus one
+        private final byte[] exits;
+        private final IntList[] buckets = new IntList[256];
+
+        Generation(Material material) {
+            this.material = material;
+            this.positions = material.positions();
+            this.values = new byte[positions];
+            this.remaining = new byte[positions];
+            this.exits = new byte[positions];
+            for (int plies = 0; plies < buckets.length; plies++) {
+                buckets[plies] = new IntList();
+            }
+        }
+
+        byte[] run() {
+            pool.invoke(new Chunked(0, positions, this::initialize));
+
+            // buckets[plies] holds positions that are decided at that distance from mate:
+            // won for the side to move at odd distances, lost at even ones
+            for (int plies = 0; plies < buckets.length; plies++) {
+                int[] decided = buckets[plies].toArray();
+                int distance = plies;
+                pool.invoke(new Chunked(0, decided.length, (board, from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        decide(board, decided[i], distance);
+                    }
+                }));
+            }
+            return values;
+        }
+
+        private void initialize(Board board, int from, int to) {
+            MoveList moves = new MoveList();
+            for (int index = from; index < to; index++) {
+                ChessGame.TeamColor side = material.sideToMove(index);
+                // Illegal positions are never reached by unmoving, so they can be left as they are
+                if (!board.setUp(index) || board.chessBoard.isInCheck(side.opponent())) {
+                    continue;
+                }
+
+                moves.clear();
+                board.chessBoard.addLegalMoves(side, moves);
+                if (moves.isEmpty()) {
+                    if (board.chessBoard.isInCheck(side)) {
+                        board.schedule(0, index);
+                    }
+                    continue;
+                }
+
+                int internal = 0;
+                int fastestWin = Integer.MAX_VALUE;
+                int slowestLoss = -1;
+                boolean notLost = false;
+                for (int i = 0; i < moves.size(); i++) {
+                    int move = moves.get(i);
+                    if (!PackedMove.isCapture(move) && PackedMove.promotion(move) == null) {
+                        internal++;
+                        continue;
+                    }
+                    int undo = board.chessBoard.makeMove(move);
+                    int value = exitValue(board.chessBoard, side.opponent());
+                    board.chessBoard.unmakeMove(move, undo);
+
+                    if (EndgameTables.isLoss(value)) {
+                        fastestWin = Math.min(fastestWin, EndgameTables.plies(value) + 1);
+                    } else if (EndgameTables.isWin(value)) {
+                        slowestLoss = Math.max(slowestLoss, EndgameTables.plies(value) + 1);
+                    } else {
+                        notLost = true;
+                    }
+                }
+
+                remaining[index] = (byte) internal;
+                if (fastestWin != Integer.MAX_VALUE) {
+                    board.schedule(fastestWin, index);
+                    exits[index] = NOT_LOST;
+                } else if (notLost) {
+                    exits[index] = NOT_LOST;
+                } else if (slowestLoss >= 0) {
+                    exits[index] = (byte) (slowestLoss + 1);
+                    if (internal == 0) {
+                        board.schedule(slowestLoss, index);
+                    }
+                }
+            }
+            board.flush();
+        }
+
+        /**
+         * Settles a position at the given distance (unless a shorter one got there
+         * first) and passes the news on to the positions that can move into it
+         */
+        private void decide(Board board, int index, int plies) {
+            boolean won = (plies & 1) != 0;
+            int value = won ? plies : plies + 2;
+            if (!BYTES.compareAndSet(values, index, (byte) 0, (byte) value)) {
+                return;
+            }
+
+            board.setUp(index);
+            ChessGame.TeamColor side = material.sideToMove(index);
+            ChessGame.TeamColor mover = side.opponent();
+            for (int slot = 0; slot < material.pieceCount(); slot++) {
+                if (Material.color(material.pieceIndex(slot)) != mover) {
+                    continue;
+                }
+                long origins = board.origins(slot);
+                while (origins != 0) {
+                    int origin = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    if (!board.isLegalUnmove(slot, origin, side)) {
+                        continue;
+                    }
+                    int predecessor = material.unmove(index, slot, origin);
+                    if (won) {
+                        predecessorHasOneLessMove(board, predecessor, plies);
+                    } else if (values[predecessor] == 0) {
+                        board.schedule(plies + 1, predecessor);
+                    }
+                }
+            }
+            board.flush();
+        }
+
+        private void predecessorHasOneLessMove(Board board, int predecessor, int plies) {
+            // The predecessor's moves inside the table not yet shown to lose, read unsigned like exits
+            int left = (byte) BYTES.getAndAdd(remaining, predecessor, (byte) -1) & 0xFF;
+            if (left != 1 || exits[predecessor] == NOT_LOST) {
+                return;
+            }
+            int exitLoss = (exits[predecessor] & 0xFF) - 1;
+            board.schedule(Math.max(plies + 1, exitLoss), predecessor);
+        }
+
+        /**
+         * A ChessBoard for one task, plus the positions it decided to schedule. They
+         * are added to the shared buckets when the task is done.
+         */
+        private final class Board {
+            final ChessBoard chessBoard = new ChessBoard();
+            private final int[] squares = new int[material.pieceCount()];
+            private final IntList[] scheduled = new IntList[buckets.length];
+
+            Board() {
+                Arrays.fill(squares, -1);
+                chessBoard.setCastlingRights(0);
+            }
+
+            /**
+             * Places the pieces of a position on the board
+             *
+             * @return False if two pieces share a square or a pawn is on the first or last rank
+             */
+            boolean setUp(int index) {
+                for (int square : squares) {
+                    if (square >= 0) {
+                        chessBoard.addPiece(Material.position(square), null);
+                    }
+                }
+                long occupied = 0;
+                boolean legal = true;
+                for (int slot = 0; slot < squares.length; slot++) {
+                    int square = material.square(index, slot);
+                    boolean pawn = material.pieceIndex(slot) % 6 == ChessPiece.PieceType.PAWN.ordinal();
+                    if ((occupied & (1L << square)) != 0 || (pawn && (square < 8 || square >= 56))) {
+                        legal = false;
+                        squares[slot] = -1;
+                        continue;
+                    }
+                    occupied |= 1L << square;
+                    squares[slot] = square;
+                    chessBoard.addPiece(Material.position(square), material.piece(slot));
+                }
+                return legal;
+            }
+
+            /**
+             * @return the empty squares the piece in a slot could have moved from
+             */
+            long origins(int slot) {
+                int square = squares[slot];
+                ChessPiece piece = material.piece(slot);
+                long origins = 0;
+
+                if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                    boolean white = piece.getTeamColor() == ChessGame.TeamColor.WHITE;
+                    int back = white ? -8 : 8;
+                    int row = square / 8 + 1;
+                    if (row != (white ? 2 : 7) && isEmpty(square + back)) {
+                        origins |= 1L << (square + back);
+                        if (row == (white ? 4 : 5) && isEmpty(square + 2 * back)) {
+                            origins |= 1L << (square + 2 * back);
+                        }
+                    }
+                    return origins;
+                }
+
+                // Other pieces move the same way in both directions, and a move
+                // within the table never captures, so the origin is empty
+                Collection<ChessMove> moves = piece.pieceMoves(chessBoard, Material.position(square));
+                for (ChessMove move : moves) {
+                    ChessPosition end = move.getEndPosition();
+                    if (chessBoard.getPiece(end) == null) {
+                        origins |= 1L << ((end.getRow() - 1) * 8 + end.getColumn() - 1);
+                    }
+                }
+                return origins;
+            }
+
+            private boolean isEmpty(int square) {
+                return chessBoard.getPiece(Material.position(square)) == null;
+            }
+
+            /**
+             * @return True if moving the piece back leaves a legal position, which is
+             * one where the side that is now to move isn't in check
+             */
+            boolean isLegalUnmove(int slot, int origin, ChessGame.TeamColor side) {
+                int back = PackedMove.of(squares[slot], origin);
+                int undo = chessBoard.makeMove(back);
+                boolean legal = !chessBoard.isInCheck(side);
+                chessBoard.unmakeMove(back, undo);
+                return legal;
+            }
+
+            void schedule(int plies, int index) {
+                if (plies >= buckets.length) {
+                    throw new IllegalStateException(material + " has a mate longer than " + (buckets.length - 1)
+                            + " plies, which doesn't fit the table format");
+                }
+                if (scheduled[plies] == null) {
+                    scheduled[plies] = new IntList();
+                }
+                scheduled[plies].add(index);
+            }
+
+            void flush() {
+                for (int plies = 0; plies < scheduled.length; plies++) {
+                    if (scheduled[plies] != null && scheduled[plies].size() > 0) {
+                        buckets[plies].addAll(scheduled[plies]);
+                        scheduled[plies].clear();
+                    }
+                }
+            }
+        }
+
+        private interface Work {
+            void run(Board board, int from, int to);
+        }
+
+        /**
+         * Splits a range of work into CHUNK-sized pieces for the fork/join pool
+         */
+        private final class Chunked extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int from;
+            private final int to;
+            // Tasks only live inside the pool and are never serialized
+            private final transient Work work;
+
+            Chunked(int from, int to, Work work) {
+                this.from = from;
+                this.to = to;
+                this.work = work;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= CHUNK) {
+                    work.run(new Board(), from, to);
+                    return;
+                }
+                int middle = (from + to) >>> 1;
+                invokeAll(new Chunked(from, middle, work), new Chunked(middle, to, work));
+            }
+        }
+    }
+
+    /**
+     * A growable int array
+     */
+    private static final class IntList {
+        private int[] items = new int[16];
+        private int size;
+
+        void add(int item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+        }
+
+        synchronized void addAll(IntList other) {
+            if (size + other.size > items.length) {
+                items = Arrays.copyOf(items, Math.max(items.length * 2, size + other.size));
+            }
+            System.arraycopy(other.items, 0, items, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        synchronized int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <output dir> <material>...   e.g. tables KQvK KRvK");
+            System.exit(2);
+        }
+        TablebaseGenerator generator = new TablebaseGenerator();
+        for (String name : Arrays.asList(args).subList(1, args.length)) {
+            long start = System.nanoTime();
+            generator.generate(Material.parse(name));
+            System.out.printf("Generated %s in %d ms%n", name, (System.nanoTime() - start) / 1_000_000);
+        }
+        generator.write(Path.of(args[0]));
+    }
+}
@@ -0,0 +1,24 @@
+package chess.tablebase;
+
+/**
+ * What an endgame table says about a position, for the side to move
+ *
+ * @param outcome how the game ends with best play
+ * @param plies   plies until mate with best play, 0 for a draw or a position that
+ *                is already checkmate
+ */
+public record TablebaseResult(Outcome outcome, int plies) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * @return moves until mate, counting the mating move; 0 for a draw
+     */
+    public int movesToMate() {
+        return (plies + 1) / 2;
+    }
+}
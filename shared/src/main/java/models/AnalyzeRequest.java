@@ -0,0 +1,4 @@
+package models;
+
+// Either fen or gameID; depth and timeMillis are optional limits
+public record AnalyzeRequest(String fen, Integer gameID, Integer depth, Integer timeMillis) {}
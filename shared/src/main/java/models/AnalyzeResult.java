@@ -0,0 +1,21 @@
+package models;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+// score is in centipawns from white's point of view; mateIn is in moves, positive when white mates
+public record AnalyzeResult(
+        String fen,
+        ChessMove bestMove,
+        List<ChessMove> line,
+        Integer score,
+        Integer mateIn,
+        Integer depth,
+        Long nodes,
+        String message
+) {
+    public static AnalyzeResult error(String message) {
+        return new AnalyzeResult(null, null, null, null, null, null, null, message);
+    }
+}
@@ -1,3 +1,8 @@
 package models;
 
-public record CreateGameRequest(String gameName) {}
\ No newline at end of file
+// botColor is optional: WHITE or BLACK makes the engine play that side
+public record CreateGameRequest(String gameName, String botColor) {
+    public CreateGameRequest(String gameName) {
+        this(gameName, null);
+    }
+}
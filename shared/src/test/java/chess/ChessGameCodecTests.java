@@ -0,0 +1,114 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessGameCodecTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            // Some castling rights gone
+            "r3k2r/8/8/8/8/8/8/R3K2R w Kq - 12 40",
+            "r3k2r/8/8/8/8/8/8/R3K2R b Q - 0 9",
+            "r3k2r/8/8/8/8/8/8/R3K2R w - - 0 9",
+            // En passant targets for both sides
+            "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 30",
+            // Half-move clock and full-move number well away from the start
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 99 327",
+    })
+    void roundTripsPositions(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+
+        ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+
+        assertEquals(fen, decoded.toFen());
+        assertEquals(game, decoded);
+        assertEquals(game.getBoard().getCastlingRights(), decoded.getBoard().getCastlingRights());
+        assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+        assertEquals(game.getFullmoveNumber(), decoded.getFullmoveNumber());
+    }
+
+    @Test
+    void roundTripsHistoryWithMovesTakenBack() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/6P1/8/8/8/8/8/R3K2R w KQkq - 4 20");
+        List<ChessMove> moves = List.of(
+                new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(1, 7), null),
+                new ChessMove(ChessPosition.of(8, 5), ChessPosition.of(8, 3), null),
+                new ChessMove(ChessPosition.of(7, 7), ChessPosition.of(8, 8), ChessPiece.PieceType.ROOK),
+                new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(8, 8), null));
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        game.undoMove();
+        game.undoMove();
+        game.setGameOver(true);
+
+        ChessGame decoded = ChessGameCodec.decode(ChessGameCodec.encode(game));
+
+        assertEquals(game.toFen(), decoded.toFen());
+        assertEquals(2, decoded.getPly());
+        assertEquals(moves.subList(0, 2), decoded.getMoveHistory());
+        assertTrue(decoded.isGameOver());
+        assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+
+        assertEquals(moves.get(2), decoded.redoMove());
+        assertEquals(moves.get(3), decoded.redoMove());
+        assertNull(decoded.redoMove());
+        assertEquals("2k4r/8/8/8/8/8/8/R4RK1 w - - 0 22", decoded.toFen());
+        decoded.goToPly(0);
+        assertEquals("r3k2r/6P1/8/8/8/8/8/R3K2R w KQkq - 4 20", decoded.toFen());
+    }
+
+    @Test
+    void rejectsTruncatedData() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        byte[] data = ChessGameCodec.encode(game);
+
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(null));
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(truncated),
+                    "Decoding the first " + length + " bytes");
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(bytes = {0, 2, 5, -1, Byte.MAX_VALUE})
+    void rejectsUnknownVersions(byte version) {
+        byte[] data = ChessGameCodec.encode(new ChessGame());
+        data[0] = version;
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ChessGameCodec.decode(data));
+        assertTrue(e.getMessage().contains("version"), e.getMessage());
+    }
+
+    @Test
+    void rejectsCorruptData() throws InvalidMoveException {
+        byte[] piece = ChessGameCodec.encode(new ChessGame());
+        piece[1] = (byte) 0xDD;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(piece));
+
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        byte[] ply = ChessGameCodec.encode(game);
+        // Played moves past the end of the history
+        ply[42] = 2;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(ply));
+
+        byte[] move = ChessGameCodec.encode(game);
+        // A move from a square to itself
+        move[45] = 0;
+        move[46] = 0;
+        assertThrows(IllegalArgumentException.class, () -> ChessGameCodec.decode(move));
+    }
+}
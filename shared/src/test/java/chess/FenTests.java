@@ -0,0 +1,64 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27",
+            "8/8/8/4k3/8/8/8/R3K3 w Q - 12 40",
+    })
+    void roundTrips(String fen) {
+        assertEquals(fen, ChessGame.fromFen(fen).toFen());
+    }
+
+    @Test
+    void fullmoveNumberGoesUpAfterBlackMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(1, game.getFullmoveNumber());
+
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        assertEquals(1, game.getFullmoveNumber());
+        assertTrue(game.toFen().endsWith(" 0 1"), game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        assertEquals(2, game.getFullmoveNumber());
+        assertTrue(game.toFen().endsWith(" 0 2"), game.toFen());
+
+        game.undoMove();
+        assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    void fullmoveNumberCarriesOnFromFen() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27");
+
+        game.makeMove(new ChessMove(ChessPosition.of(5, 8), ChessPosition.of(5, 7), null));
+        assertEquals("8/2p5/3p4/KP4r1/1R3p1k/8/4P1P1/8 w - - 4 28", game.toFen());
+
+        game.makeMove(new ChessMove(ChessPosition.of(5, 1), ChessPosition.of(6, 1), null));
+        assertEquals(28, game.getFullmoveNumber());
+    }
+
+    @Test
+    void missingFullmoveNumberStartsAtOne() {
+        assertEquals(1, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - -").getFullmoveNumber());
+        assertEquals(1, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 0").getFullmoveNumber());
+    }
+
+    @Test
+    void codecKeepsFullmoveNumber() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27");
+        game.makeMove(new ChessMove(ChessPosition.of(5, 8), ChessPosition.of(5, 7), null));
+
+        assertEquals(game.toFen(), ChessGameCodec.decode(ChessGameCodec.encode(game)).toFen());
+    }
+}
@@ -0,0 +1,82 @@
+package chess;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+
+class GameStatusTests {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String ROOKS = "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1";
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            START + " | g1f3 g8f6 f3g1 f6g8 | IN_PROGRESS",
+            START + " | g1f3 g8f6 f3g1 f6g8 g1f3 g8f6 f3g1 f6g8 | THREEFOLD_REPETITION",
+            // The position after Nf3 comes up a third time, not the starting one
+            START + " | g1f3 g8f6 f3g1 f6g8 g1f3 g8f6 f3g1 f6g8 g1f3 | THREEFOLD_REPETITION",
+            // A pawn move in between means the earlier positions can't come back
+            START + " | g1f3 g8f6 f3g1 f6g8 e2e3 e7e6 g1f3 g8f6 f3g1 f6g8 | IN_PROGRESS",
+            // Same squares, but castling rights lost along the way make it a different position
+            ROOKS + " | a1b1 a8b8 b1a1 b8a8 a1b1 a8b8 b1a1 b8a8 | IN_PROGRESS",
+            ROOKS + " | a1b1 a8b8 b1a1 b8a8 a1b1 a8b8 b1a1 b8a8 a1b1 a8b8 b1a1 b8a8 | THREEFOLD_REPETITION",
+    })
+    void threefoldRepetition(String fen, String moves, ChessGame.GameStatus status) throws InvalidMoveException {
+        ChessGame game = play(fen, moves);
+
+        assertEquals(status, game.getGameStatus());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 98 60 | a1a2 | IN_PROGRESS | 99",
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 99 60 | a1a2 | FIFTY_MOVE_RULE | 100",
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 99 60 | a1a2 e8d8 | FIFTY_MOVE_RULE | 101",
+            // A capture or a pawn move on the last move starts the count again
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 99 60 | a1a5 | IN_PROGRESS | 0",
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 99 60 | e2e4 | IN_PROGRESS | 0",
+            "4k3/8/8/p7/8/8/4P3/R3K3 w - - 99 60 | e2e4 e8d8 | IN_PROGRESS | 1",
+            // Checkmate on the hundredth half-move still counts as a win
+            "7k/8/6K1/8/8/8/8/R7 w - - 99 60 | a1a8 | CHECKMATE | 100",
+    })
+    void fiftyMoveRule(String fen, String moves, ChessGame.GameStatus status, int clock)
+            throws InvalidMoveException {
+        ChessGame game = play(fen, moves);
+
+        assertEquals(status, game.getGameStatus());
+        assertEquals(clock, game.getHalfmoveClock());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            "4k3/8/8/8/8/8/8/2B1K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            "4k3/8/8/8/8/8/8/1N2K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            "4kn2/8/8/8/8/8/8/4K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            // Bishops that all run on the same colour, however many
+            "4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            "4kb2/8/8/8/8/8/8/B1B1K3 w - - 0 1 | INSUFFICIENT_MATERIAL",
+            // Enough to mate with, or at least to set one up
+            "2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1 | IN_PROGRESS",
+            "4k3/8/8/8/8/8/8/1NB1K3 w - - 0 1 | IN_PROGRESS",
+            "4k3/8/8/8/8/8/8/1N1NK3 w - - 0 1 | IN_PROGRESS",
+            "4kn2/8/8/8/8/8/8/2B1K3 w - - 0 1 | IN_PROGRESS",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1 | IN_PROGRESS",
+            "4k3/8/8/8/8/8/8/R3K3 w - - 0 1 | IN_PROGRESS",
+    })
+    void insufficientMaterial(String fen, ChessGame.GameStatus status) {
+        ChessGame game = ChessGame.fromFen(fen);
+
+        assertEquals(status, game.getGameStatus());
+        assertEquals(status.isDraw(), game.getBoard().hasInsufficientMaterial());
+    }
+
+    private static ChessGame play(String fen, String moves) throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(fen);
+        for (String move : moves.split(" ")) {
+            game.makeMove(move(move));
+        }
+        return game;
+    }
+}
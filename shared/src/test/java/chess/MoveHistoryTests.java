@@ -0,0 +1,226 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+import static passoff.chess.TestSquares.square;
+
+class MoveHistoryTests {
+    private static final ChessMove E4 = move("e2", "e4");
+    private static final ChessMove E5 = move("e7", "e5");
+    private static final ChessMove NF3 = move("g1", "f3");
+    private static final ChessMove D4 = move("d2", "d4");
+
+    @Test
+    void undoAndRedoAtTheEnds() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertNull(game.undoMove(), "Nothing to undo in a new game");
+        assertNull(game.redoMove(), "Nothing to redo in a new game");
+
+        game.makeMove(E4);
+        game.makeMove(E5);
+        assertNull(game.redoMove(), "Nothing to redo after the last move");
+
+        assertEquals(E5, game.undoMove());
+        assertEquals(E4, game.undoMove());
+        assertNull(game.undoMove());
+        assertEquals(new ChessGame(), game);
+        assertEquals(0, game.getPly());
+
+        assertEquals(E4, game.redoMove());
+        assertEquals(E5, game.redoMove());
+        assertNull(game.redoMove());
+        assertEquals(List.of(E4, E5), game.getMoveHistory());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void newMoveAfterUndoDropsRedo() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(E4);
+        game.makeMove(E5);
+        game.makeMove(NF3);
+        game.undoMove();
+        game.undoMove();
+
+        game.makeMove(move("d7", "d5"));
+
+        assertNull(game.redoMove(), "The undone moves should be gone");
+        assertEquals(List.of(E4, move("d7", "d5")), game.getMoveHistory());
+        assertThrows(IllegalArgumentException.class, () -> game.goToPly(3));
+    }
+
+    @Test
+    void goToPly() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(E4);
+        game.makeMove(E5);
+        game.makeMove(NF3);
+        String end = game.toFen();
+
+        game.goToPly(1);
+        assertEquals(List.of(E4), game.getMoveHistory());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.goToPly(3);
+        assertEquals(end, game.toFen());
+
+        game.goToPly(0);
+        assertEquals(new ChessGame().toFen(), game.toFen());
+
+        assertThrows(IllegalArgumentException.class, () -> game.goToPly(-1));
+        assertThrows(IllegalArgumentException.class, () -> game.goToPly(4));
+        assertEquals(0, game.getPly(), "A bad ply should leave the game where it was");
+    }
+
+    @Test
+    void undoRestoresCastlingRights() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 5 20");
+        String before = game.toFen();
+
+        game.makeMove(move("e1", "g1"));
+        assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 6 20", game.toFen());
+        game.makeMove(move("a8", "a7"));
+        assertEquals(ChessBoard.BLACK_KINGSIDE, game.getBoard().getCastlingRights());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(before, game.toFen());
+        assertEquals(ChessBoard.ALL_CASTLING, game.getBoard().getCastlingRights());
+
+        game.redoMove();
+        assertEquals("r3k2r/8/8/8/8/8/8/R4RK1 b kq - 6 20", game.toFen());
+    }
+
+    @Test
+    void undoRestoresEnPassant() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 30");
+        String before = game.toFen();
+
+        game.makeMove(move("e5", "d6"));
+        assertNull(game.getBoard().getPiece(ChessPosition.of(5, 4)), "The captured pawn should be gone");
+
+        game.undoMove();
+        assertEquals(before, game.toFen());
+        assertEquals(ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN),
+                game.getBoard().getPiece(ChessPosition.of(5, 4)));
+        assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(move("e5", "d6")),
+                "En passant should be available again");
+    }
+
+    @Test
+    void undoRestoresHalfmoveClock() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3p4/8/8/8/R3K3 w - - 7 40");
+
+        game.makeMove(move("a1", "a5"));
+        assertEquals(8, game.getHalfmoveClock());
+        game.makeMove(move("e8", "e7"));
+        game.makeMove(move("a5", "d5"));
+        assertEquals(0, game.getHalfmoveClock(), "A capture resets the clock");
+        game.makeMove(move("e7", "e6"));
+        assertEquals(1, game.getHalfmoveClock());
+
+        game.undoMove();
+        game.undoMove();
+        assertEquals(9, game.getHalfmoveClock(), "Undoing the capture brings back the old count");
+        game.goToPly(0);
+        assertEquals(7, game.getHalfmoveClock());
+        game.goToPly(4);
+        assertEquals(1, game.getHalfmoveClock());
+    }
+
+    @Test
+    void keepsKeysBackToTheLastPawnMove() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/4P3/R3K2R w KQkq - 0 1");
+        ChessMove[] shuffle = {move("a1", "b1"), move("a8", "b8"), move("b1", "a1"), move("b8", "a8")};
+        long[] expected = new long[20];
+
+        // More quiet moves than the ring starts with, so it has to grow
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = game.zobristKey();
+            game.makeMove(shuffle[i % 4]);
+        }
+        assertArrayEquals(expected, game.repeatablePositionKeys());
+
+        game.makeMove(move("e2", "e4"));
+        assertEquals(0, game.repeatablePositionKeys().length, "Nothing before a pawn move can repeat");
+        game.undoMove();
+        assertArrayEquals(expected, game.repeatablePositionKeys());
+    }
+
+    @Test
+    void statusAfterLoadFindsRepetitionsWithoutMovingTheBoard() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (int i = 0; i < 2; i++) {
+            game.makeMove(NF3);
+            game.makeMove(move("g8", "f6"));
+            game.makeMove(move("f3", "g1"));
+            game.makeMove(move("f6", "g8"));
+        }
+        ChessGame read = new Gson().fromJson(new Gson().toJson(game), ChessGame.class);
+        ChessBoard board = read.getBoard();
+        ChessBoard before = board.deepCopy();
+
+        assertEquals(ChessGame.GameStatus.THREEFOLD_REPETITION, read.getGameStatus());
+        assertSame(board, read.getBoard());
+        assertEquals(before, board);
+        assertEquals(before.zobristKey(ChessGame.TeamColor.WHITE), board.zobristKey(ChessGame.TeamColor.WHITE));
+        assertEquals(8, read.getPly());
+    }
+
+    @Test
+    void entriesHoldPackedMoves() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        ChessMove promotion = new ChessMove(square("a7"), square("b8"), ChessPiece.PieceType.KNIGHT);
+        game.makeMove(promotion);
+        game.makeMove(move("e8", "e7"));
+
+        int[] entries = game.history().entries();
+        assertEquals(PackedMove.of(promotion), PackedMove.key(entries[0]));
+        assertEquals(PackedMove.of(move("e8", "e7")), PackedMove.key(entries[1]));
+        assertEquals(List.of(promotion, move("e8", "e7")), game.getMoveHistory());
+    }
+
+    @Test
+    void copyKeepsHistoryAndIsIndependent()throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(E4);
+        game.makeMove(E5);
+        game.undoMove();
+
+        ChessGame copy = game.copy();
+        assertEquals(game.toFen(), copy.toFen());
+        assertEquals(List.of(E4), copy.getMoveHistory());
+
+        copy.makeMove(move("d7", "d5"));
+        assertEquals(E5, game.redoMove(), "Moves on the copy should leave the original alone");
+        assertEquals(List.of(E4, move("d7", "d5")), copy.getMoveHistory());
+    }
+
+    @Test
+    void jsonHoldsOnlyRecordedMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(E4);
+        game.makeMove(E5);
+        game.makeMove(D4);
+        game.undoMove();
+
+        Gson gson = new Gson();
+        String json = gson.toJson(game);
+        JsonObject history = JsonParser.parseString(json).getAsJsonObject().getAsJsonObject("history");
+        assertEquals(3, history.getAsJsonArray("entries").size(), "Spare capacity should not be written");
+
+        ChessGame read = gson.fromJson(json, ChessGame.class);
+        assertEquals(game.toFen(), read.toFen());
+        assertEquals(List.of(E4, E5), read.getMoveHistory());
+        assertEquals(D4, read.redoMove());
+        read.goToPly(0);
+        assertEquals(new ChessGame(), read);
+    }
+}
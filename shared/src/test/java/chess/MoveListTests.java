@@ -0,0 +1,129 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveListTests {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void indexOfIgnoresFlags() {
+        MoveList moves = new MoveList();
+        moves.add(PackedMove.of(12, 28));
+        moves.add(PackedMove.of(28, 35) | PackedMove.CAPTURE);
+        moves.add(PackedMove.of(4, 6) | PackedMove.CASTLING);
+
+        assertEquals(1, moves.indexOf(PackedMove.of(28, 35)));
+        assertEquals(2, moves.indexOf(PackedMove.of(4, 6)));
+        assertEquals(-1, moves.indexOf(PackedMove.of(4, 5)));
+    }
+
+    @Test
+    void setSwapAndClear() {
+        MoveList moves = new MoveList();
+        moves.add(1);
+        assertTrue(moves.accept(2), "Filling a list never stops generation");
+        moves.add(3);
+
+        moves.swap(0, 2);
+        moves.set(1, 7);
+        assertEquals(3, moves.get(0));
+        assertEquals(7, moves.get(1));
+        assertEquals(1, moves.get(2));
+
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertEquals(0, moves.size());
+    }
+
+    @Test
+    void scratchIsOneClearedListPerThread() throws InterruptedException {
+        MoveList scratch = MoveList.scratch();
+        scratch.add(PackedMove.of(12, 28));
+
+        assertSame(scratch, MoveList.scratch());
+        assertTrue(scratch.isEmpty(), "Taking the scratch list clears it");
+
+        MoveList[] other = new MoveList[1];
+        Thread thread = new Thread(() -> other[0] = MoveList.scratch());
+        thread.start();
+        thread.join();
+        assertNotSame(scratch, other[0]);
+    }
+
+    @Test
+    void holdsTheMostMovesOfAnyPosition() {
+        // 218 legal moves, the most known for any position
+        ChessBoard board = ChessGame.fromFen("R6R/3Q4/1Q4Q1/4Q3/2Q4Q/Q4Q2/pp1Q4/kBNN1KB1 w - - 0 1").getBoard();
+        MoveList moves = new MoveList();
+        board.addLegalMoves(ChessGame.TeamColor.WHITE, moves);
+
+        assertEquals(218, moves.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5, 20})
+    void sinkStopsRightAfterItSaysSo(int wanted) {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        List<ChessMove> seen = new ArrayList<>();
+
+        boolean finished = board.forEachLegalMove(ChessGame.TeamColor.WHITE, move -> {
+            seen.add(move);
+            return seen.size() < wanted;
+        });
+
+        assertFalse(finished);
+        assertEquals(wanted, seen.size(), "No moves should be handed over after the sink stops");
+        List<ChessMove> all = new ArrayList<>();
+        board.addLegalMoves(ChessGame.TeamColor.WHITE, all);
+        assertEquals(all.subList(0, wanted), seen);
+    }
+
+    @Test
+    void sinkSeesEveryMoveIfItNeverStops() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        List<ChessMove> seen = new ArrayList<>();
+
+        assertTrue(board.forEachLegalMove(ChessGame.TeamColor.WHITE, seen::add));
+        assertEquals(48, seen.size());
+        assertEquals(48, new HashSet<>(seen).size());
+    }
+
+    @Test
+    void pieceSinkStopsWithinOnePiece() {
+        ChessBoard board = ChessGame.fromFen(KIWIPETE).getBoard();
+        ChessPosition queen = ChessPosition.of(3, 6);
+        int[] seen = new int[1];
+
+        boolean finished = board.getPiece(queen).forEachPieceMove(board, queen, move -> ++seen[0] < 3);
+
+        assertFalse(finished);
+        assertEquals(3, seen[0]);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            KIWIPETE,
+            // Checkmate, stalemate, and a single legal move out of check
+            "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+            "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",
+            "7k/8/8/8/8/8/6PP/r5K1 w - - 0 1",
+            "4k3/8/8/8/8/8/8/4K2r w - - 0 1",
+    })
+    void hasLegalMoveAgreesWithGeneration(String fen) {
+        ChessGame game = ChessGame.fromFen(fen);
+        ChessGame.TeamColor side = game.getTeamTurn();
+        MoveList moves = new MoveList();
+        game.getBoard().addLegalMoves(side, moves);
+
+        assertEquals(!moves.isEmpty(), game.getBoard().hasLegalMove(side));
+        assertEquals(moves.isEmpty(), game.getGameStatus().isOver());
+    }
+}
@@ -0,0 +1,97 @@
+package chess;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTests {
+
+    @ParameterizedTest
+    @CsvSource({
+            "1, 1, 8, 8, ",
+            "2, 5, 4, 5, ",
+            "8, 8, 1, 1, ",
+            "7, 1, 8, 2, KNIGHT",
+            "2, 8, 1, 8, QUEEN",
+    })
+    void packsAndUnpacks(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        ChessMove move = new ChessMove(ChessPosition.of(fromRow, fromCol), ChessPosition.of(toRow, toCol), promotion);
+        int packed = PackedMove.of(move);
+
+        assertEquals((fromRow - 1) * 8 + fromCol - 1, PackedMove.from(packed));
+        assertEquals((toRow - 1) * 8 + toCol - 1, PackedMove.to(packed));
+        assertEquals(promotion, PackedMove.promotion(packed));
+        assertEquals(move, PackedMove.toChessMove(packed));
+        assertNotEquals(0, packed);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3",
+    })
+    void keyMatchesTranspositionTable(String fen) {
+        ChessBoard board = ChessGame.fromFen(fen).getBoard();
+        ChessGame.TeamColor side = fen.contains(" w ") ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        MoveList moves = new MoveList();
+        board.addLegalMoves(side, moves);
+
+        assertFalse(moves.isEmpty());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            ChessMove chessMove = PackedMove.toChessMove(move);
+            assertEquals(TranspositionTable.packMove(chessMove), PackedMove.key(move), chessMove.toString());
+            assertEquals(PackedMove.of(chessMove), PackedMove.key(move), chessMove.toString());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1 | e4 | d5 | CAPTURE",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1 | e5 | d6 | EN_PASSANT",
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1 | e1 | g1 | CASTLING",
+            "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1 | e8 | c8 | CASTLING",
+            "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1 | e2 | e4 | NONE",
+    })
+    void generatorSetsFlags(String fen, String from, String to, String flag) {
+        ChessBoard board = ChessGame.fromFen(fen).getBoard();
+        ChessGame.TeamColor side = fen.contains(" w ") ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        MoveList moves = new MoveList();
+        board.addLegalMoves(side, moves);
+
+        int index = moves.indexOf(PackedMove.of(square(from), square(to)));
+        assertTrue(index >= 0, from + to + " should be generated");
+        int move = moves.get(index);
+        assertEquals(flag.equals("CAPTURE") || flag.equals("EN_PASSANT"), PackedMove.isCapture(move));
+        assertEquals(flag.equals("EN_PASSANT"), PackedMove.isEnPassant(move));
+        assertEquals(flag.equals("CASTLING"), (move & PackedMove.CASTLING) != 0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+    })
+    void chessMovesMatchPackedMoves(String fen) {
+        ChessBoard board = ChessGame.fromFen(fen).getBoard();
+        MoveList packed = new MoveList();
+        board.addLegalMoves(ChessGame.TeamColor.WHITE, packed);
+        List<ChessMove> moves = new ArrayList<>();
+        board.addLegalMoves(ChessGame.TeamColor.WHITE, moves);
+
+        List<ChessMove> unpacked = new ArrayList<>();
+        packed.addTo(unpacked);
+        assertEquals(unpacked, moves);
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + name.charAt(0) - 'a';
+    }
+}
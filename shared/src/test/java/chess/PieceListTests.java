@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+
+class PieceListTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // Castling both ways, then the rooks that jumped move again
+            "r3k2r/p6p/8/8/8/8/P6P/R3K2R w KQkq - 0 1 | e1g1 e8c8 f1f7 d8d2 f7h7 d2a2",
+            "r3k2r/p6p/8/8/8/8/P6P/R3K2R w KQkq - 0 1 | e1c1 e8g8 d1d7 f8f2 d7a7 f2h2",
+            // En passant takes a pawn that isn't on the square moved to
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1 | e5d6 e8d7 e1e2 d7d6",
+            "4k3/8/8/8/3Pp3/8/8/4K3 b - d3 0 1 | e4d3 e1d1 d3d2 d1d2",
+            // Promotions, with and without a capture, then the new piece moves
+            "1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1 | a7b8n e8e7 b8c6 e7d7 e1e2 d7c6",
+            "4k3/P6p/8/8/8/8/7p/4K3 w - - 0 1 | a7a8q e8e7 e1f2 h2h1r a8h1 h7h5",
+            // Ordinary captures from the opening
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | e2e4 d7d5 e4d5 d8d5 b1c3 d5a5 d2d4 c8g4",
+    })
+    void staysInStepWithTheBoard(String fen, String moves) throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen(fen);
+        // Builds the lists from the board before any move, so they're updated from here on
+        assertMatchesBoard(game);
+
+        for (String move : moves.split(" ")) {
+            game.makeMove(move(move));
+            assertMatchesBoard(game);
+        }
+    }
+
+    @Test
+    void removeFillsTheHoleWithTheLastSlot() {
+        PieceList list = PieceList.of(0b1111);
+
+        list.remove(1);
+
+        assertEquals(3, list.size());
+        assertEquals(3, list.square(1));
+        assertEquals(1, list.slotOf(3));
+        assertEquals(-1, list.slotOf(1));
+    }
+
+    @Test
+    void growsPastSixteenPieces() {
+        PieceList list = PieceList.of(0xFFFFFL);
+
+        assertEquals(20, list.size());
+        for (int slot = 0; slot < list.size(); slot++) {
+            assertEquals(slot, list.slotOf(list.square(slot)));
+        }
+    }
+
+    private static void assertMatchesBoard(ChessGame game) {
+        for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+            PieceList list = game.piecesOf(team);
+            long occupancy = game.getBoard().occupancy(team);
+
+            assertEquals(PieceList.of(occupancy).size(), list.size(), team + " piece count");
+            long squares = 0;
+            for (int slot = 0; slot < list.size(); slot++) {
+                int square = list.square(slot);
+                assertEquals(slot, list.slotOf(square), team + " slot of square " + square);
+                squares |= 1L << square;
+            }
+            assertEquals(occupancy, squares, team + " squares");
+            for (int square = 0; square < 64; square++) {
+                if ((occupancy & (1L << square)) == 0) {
+                    assertEquals(-1, list.slotOf(square), team + " empty square " + square);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTests {
+    private static final long KEY = 0x9E3779B97F4A7C15L;
+    private static final int E2E4 = PackedMove.of(12, 28);
+
+    @ParameterizedTest
+    @CsvSource({
+            "0, 0, 3, 0",
+            "1, 35, 1, 12",
+            "255, -35, 2, 4095",
+            "12, 99990, 3, 32767",
+            "7, -99990, 1, 1",
+            "3, 2147483647, 2, 4100",
+            "3, -2147483648, 3, 4100",
+    })
+    void storesAndProbesEveryField(int depth, int score, int bound, int move) {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, depth, score, bound, move);
+
+        long data = table.probe(KEY);
+        assertNotEquals(0, data);
+        assertEquals(depth, TranspositionTable.depth(data));
+        assertEquals(score, TranspositionTable.score(data));
+        assertEquals(bound, TranspositionTable.bound(data));
+        assertEquals(move, TranspositionTable.move(data));
+    }
+
+    @Test
+    void missesOtherKeys() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 5, 10, TranspositionTable.EXACT, E2E4);
+
+        assertEquals(0, table.probe(KEY ^ 1), "A different index bit finds another, empty entry");
+        assertEquals(0, table.probe(KEY ^ (1L << 40)), "Same entry, but the check word doesn't match");
+        assertEquals(0, table.probe(KEY + table.capacity()), "Same entry, different key");
+        assertEquals(0, new TranspositionTable(1).probe(KEY));
+    }
+
+    @Test
+    void keepsDeeperResultsFromTheSameSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 8, 50, TranspositionTable.EXACT, E2E4);
+
+        table.store(KEY, 6, -20, TranspositionTable.LOWER, 0);
+        assertEquals(8, TranspositionTable.depth(table.probe(KEY)));
+        assertEquals(50, TranspositionTable.score(table.probe(KEY)));
+
+        table.store(KEY, 8, 30, TranspositionTable.UPPER, 0);
+        assertEquals(30, TranspositionTable.score(table.probe(KEY)), "An equally deep result replaces");
+        assertEquals(E2E4, TranspositionTable.move(table.probe(KEY)), "No move keeps the stored one");
+
+        table.store(KEY, 9, 40, TranspositionTable.EXACT, PackedMove.of(11, 27));
+        assertEquals(9, TranspositionTable.depth(table.probe(KEY)));
+        assertEquals(PackedMove.of(11, 27), TranspositionTable.move(table.probe(KEY)));
+    }
+
+    @Test
+    void replacesResultsFromEarlierSearches() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 20, 50, TranspositionTable.EXACT, E2E4);
+
+        table.newSearch();
+        table.store(KEY, 1, -5, TranspositionTable.UPPER, 0);
+
+        long data = table.probe(KEY);
+        assertEquals(1, TranspositionTable.depth(data));
+        assertEquals(-5, TranspositionTable.score(data));
+        assertEquals(E2E4, TranspositionTable.move(data));
+    }
+
+    @Test
+    void otherPositionsAlwaysReplace() {
+        TranspositionTable table = new TranspositionTable(1);
+        long other = KEY + table.capacity();
+        table.store(KEY, 20, 50, TranspositionTable.EXACT, E2E4);
+
+        table.store(other, 1, 7, TranspositionTable.LOWER, 0);
+
+        assertEquals(0, table.probe(KEY));
+        assertEquals(0, TranspositionTable.move(table.probe(other)), "The old position's move isn't carried over");
+        assertEquals(7, TranspositionTable.score(table.probe(other)));
+    }
+
+    @Test
+    void tornEntriesMiss() {
+        TranspositionTable table = new TranspositionTable(1);
+        long other = KEY + table.capacity();
+        table.store(KEY, 5, 10, TranspositionTable.EXACT, E2E4);
+        long first = table.probe(KEY);
+        table.store(other, 6, -10, TranspositionTable.LOWER, 0);
+        long second = table.probe(other);
+
+        // One store's check word with the other's data, as two racing stores can leave it
+        table.storeWords(KEY, KEY ^ first, second);
+        assertEquals(0, table.probe(KEY));
+        assertEquals(0, table.probe(other));
+
+        table.storeWords(KEY, KEY ^ first, first);
+        assertEquals(first, table.probe(KEY));
+    }
+
+    @Test
+    void clearEmptiesTheTable() {
+        TranspositionTable table = new TranspositionTable(1);
+        table.store(KEY, 5, 10, TranspositionTable.EXACT, E2E4);
+
+        table.clear();
+
+        assertEquals(0, table.probe(KEY));
+        assertEquals(1 << 16, table.capacity());
+    }
+
+    @Test
+    void rejectsBadSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(TranspositionTable.MAX_MEGABYTES + 1));
+    }
+}
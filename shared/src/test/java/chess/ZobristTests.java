@@ -0,0 +1,116 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+
+class ZobristTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | 3",
+            // Castling both ways, en passant and promotions for both sides
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1 | 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1 | 4",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1 | 3",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3 | 3",
+            "n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1 | 3",
+    })
+    void incrementalKeysMatchRecomputedKeys(String fen, int depth) {
+        ChessGame game = ChessGame.fromFen(fen);
+        ChessBoard board = game.getBoard();
+        ChessGame.TeamColor side = game.getTeamTurn();
+        assertEquals(recompute(board, side), game.zobristKey());
+
+        MoveList[] lists = new MoveList[depth];
+        for (int ply = 0; ply < depth; ply++) {
+            lists[ply] = new MoveList();
+        }
+        walk(board, side, lists, 0);
+    }
+
+    private static void walk(ChessBoard board, ChessGame.TeamColor side, MoveList[] lists, int ply) {
+        MoveList moves = lists[ply];
+        moves.clear();
+        board.addLegalMoves(side, moves);
+        long key = board.zobristKey(side);
+
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int undo = board.makeMove(move);
+            assertEquals(recompute(board, side.opponent()), board.zobristKey(side.opponent()),
+                    () -> "After " + PackedMove.toChessMove(move));
+            if (ply + 1 < lists.length) {
+                walk(board, side.opponent(), lists, ply + 1);
+            }
+            board.unmakeMove(move, undo);
+            assertEquals(key, board.zobristKey(side), () -> "Taking back " + PackedMove.toChessMove(move));
+        }
+    }
+
+    /**
+     * Builds the key from every piece on the board, without the running key makeMove keeps
+     */
+    private static long recompute(ChessBoard board, ChessGame.TeamColor toMove) {
+        long key = 0;
+        for (int index = 0; index < 12; index++) {
+            for (long pieces = board.pieceBitboards[index]; pieces != 0; pieces &= pieces - 1) {
+                key ^= Zobrist.PIECE_SQUARE[index][Long.numberOfTrailingZeros(pieces)];
+            }
+        }
+        key ^= Zobrist.CASTLING[board.getCastlingRights()];
+        ChessPosition enPassant = board.getEnPassantTarget();
+        if (enPassant != null) {
+            key ^= Zobrist.EN_PASSANT_FILE[enPassant.getColumn() - 1];
+        }
+        return toMove == ChessGame.TeamColor.BLACK ? key ^ Zobrist.SIDE_TO_MOVE : key;
+    }
+
+    @Test
+    void transpositionsShareKeys() throws InvalidMoveException {
+        assertEquals(play("g1f3 b8c6 b1c3"), play("b1c3 b8c6 g1f3"));
+        assertEquals(play("g1f3 b8c6 b1c3 g8f6"), play("b1c3 g8f6 g1f3 b8c6"));
+        // Moving back and forth gives the start position again
+        assertEquals(new ChessGame().zobristKey(), play("g1f3 g8f6 f3g1 f6g8"));
+        // No black pawn can take e4 en passant, so 1. e4 leaves no en passant file in the key
+        assertEquals(ChessGame.fromFen("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1").zobristKey(),
+                play("e2e4"));
+    }
+
+    @Test
+    void otherStateChangesKeys() throws InvalidMoveException {
+        String placement = "r3k2r/8/8/8/8/8/8/R3K2R";
+        ChessGame whiteToMove = ChessGame.fromFen(placement + " w KQkq - 0 1");
+        ChessGame blackToMove = ChessGame.fromFen(placement + " b KQkq - 0 1");
+        assertNotEquals(whiteToMove.zobristKey(), blackToMove.zobristKey());
+
+        // The kings come back to the same squares without their castling rights
+        ChessGame game = ChessGame.fromFen(placement + " w KQkq - 0 1");
+        for (String move : "e1e2 e8e7 e2e1 e7e8".split(" ")) {
+            game.makeMove(move(move));
+        }
+        assertNotEquals(whiteToMove.zobristKey(), game.zobristKey());
+        assertEquals(ChessGame.fromFen(placement + " w - - 4 3").zobristKey(), game.zobristKey());
+
+        // White can take en passant right after d5, but not once the kings have moved
+        ChessGame enPassant = ChessGame.fromFen("4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1");
+        enPassant.makeMove(move("d7d5"));
+        assertNotEquals(ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - - 0 2").zobristKey(), enPassant.zobristKey());
+        assertEquals(ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2").zobristKey(), enPassant.zobristKey());
+        for (String move : "e1e2 e8e7 e2e1 e7e8".split(" ")) {
+            enPassant.makeMove(move(move));
+        }
+        assertEquals(ChessGame.fromFen("4k3/8/8/3pP3/8/8/8/4K3 w - - 4 4").zobristKey(), enPassant.zobristKey());
+    }
+
+    private static long play(String moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves.split(" ")) {
+            game.makeMove(move(move));
+        }
+        return game.zobristKey();
+    }
+}
@@ -0,0 +1,188 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+
+class PgnTests {
+    private static final String SCHOLARS_MATE = """
+            [Event "Casual"]
+            [Site "?"]
+            [Date "2024.01.01"]
+            [Round "?"]
+            [White "Alice"]
+            [Black "Bob"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0
+
+            """;
+
+    @Test
+    void readsTagsMovesAndResult() throws IOException {
+        PgnGame game = readAll(SCHOLARS_MATE).get(0);
+
+        assertEquals("Alice", game.tags().get("White"));
+        assertEquals("1-0", game.result());
+        assertEquals(7, game.moves().size());
+        assertEquals(move("h5", "f7"), game.moves().get(6));
+    }
+
+    @Test
+    void skipsCommentsVariationsNagsAndEscapes() throws IOException {
+        String pgn = """
+                [Result "*"]
+                % an escaped line 1. d4
+                1. e4 {best by test} e5 $1 2. Nf3 (2. f4 exf4 (2... d5) 3. Nf3) 2... Nc6 ; rest of line 3. d4
+                3.Bb5 3...a6 *
+                """;
+
+        List<ChessMove> moves = readAll(pgn).get(0).moves();
+
+        assertEquals(List.of(
+                move("e2", "e4"),
+                move("e7", "e5"),
+                move("g1", "f3"),
+                move("b8", "c6"),
+                move("f1", "b5"),
+                move("a7", "a6")), moves);
+    }
+
+    @Test
+    void readsSeveralGames() throws IOException {
+        List<PgnGame> games = readAll(SCHOLARS_MATE + SCHOLARS_MATE.replace("1-0", "*").replace("Qxf7#", ""));
+
+        assertEquals(2, games.size());
+        assertEquals(6, games.get(1).moves().size());
+        assertEquals("*", games.get(1).result());
+    }
+
+    @Test
+    void readsFromFenTag() throws IOException {
+        String pgn = """
+                [SetUp "1"]
+                [FEN "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27"]
+
+                27... Rg5 28. Ka6 *
+                """;
+
+        PgnGame game = readAll(pgn).get(0);
+        ChessGame replay = game.startingPosition();
+        for (ChessMove move : game.moves()) {
+            assertDoesNotThrow(() -> replay.makeMove(move));
+        }
+        assertEquals("8/2p5/K2p4/1P4r1/1R3p1k/8/4P1P1/8 b - - 5 28", replay.toFen());
+    }
+
+    @Test
+    void rejectsIllegalMoves() {
+        assertThrows(PgnException.class, () -> readAll("1. e4 e4 *"));
+        assertThrows(PgnException.class, () -> readAll("[FEN \"not a fen\"]\n\n*"));
+        assertThrows(PgnException.class, () -> readAll("1. e4 (1. d4 *"));
+    }
+
+    @Test
+    void writesCheckAndMateSuffixes() throws IOException {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        for (String[] move : new String[][]{{"e2", "e4"}, {"f7", "f6"}, {"d1", "h5"}, {"g7", "g6"},
+                {"h5", "g6"}, {"h7", "g6"}}) {
+            moves.add(move(move[0], move[1]));
+        }
+
+        String pgn = write(new PgnGame(Map.of(), moves, "*"));
+        assertTrue(pgn.endsWith("1. e4 f6 2. Qh5+ g6 3. Qxg6+ hxg6 *\n\n"), pgn);
+
+        assertTrue(write(readAll(SCHOLARS_MATE).get(0)).contains("4. Qxf7# 1-0"));
+    }
+
+    @Test
+    void writesMoveNumbersFromFenTag() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("SetUp", "1");
+        tags.put("FEN", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27");
+        List<ChessMove> moves = List.of(
+                move("h5", "g5"),
+                move("a5", "a6"));
+
+        String pgn = write(new PgnGame(tags, moves, "*"));
+
+        assertTrue(pgn.contains("[SetUp \"1\"]\n[FEN \"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 3 27\"]\n"), pgn);
+        assertTrue(pgn.endsWith("\n27... Rg5 28. Ka6 *\n\n"), pgn);
+    }
+
+    @Test
+    void roundTrips() throws IOException {
+        String pgn = SCHOLARS_MATE + """
+                [Event "?"]
+                [Site "?"]
+                [Date "?"]
+                [Round "?"]
+                [White "?"]
+                [Black "?"]
+                [Result "*"]
+                [SetUp "1"]
+                [FEN "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 12"]
+
+                12... O-O-O 13. O-O Rh2 *
+
+                """;
+
+        List<PgnGame> games = readAll(pgn);
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (PgnGame game : games) {
+                writer.writeGame(game);
+            }
+        }
+
+        assertEquals(pgn, out.toString());
+        assertEquals(games, readAll(out.toString()));
+    }
+
+    @Test
+    void wrapsLongMovetext() throws IOException {
+        ChessGame game = new ChessGame();
+        List<ChessMove> moves = new ArrayList<>();
+        String[][] shuffle = {{"g1", "f3"}, {"g8", "f6"}, {"f3", "g1"}, {"f6", "g8"}};
+        for (int i = 0; i < 40; i++) {
+            String[] move = shuffle[i % 4];
+            moves.add(move(move[0], move[1]));
+        }
+
+        String pgn = write(new PgnGame(Map.of(), moves, "1/2-1/2"));
+        for (String line : pgn.split("\n")) {
+            assertTrue(line.length() <= 80, line);
+        }
+        assertEquals(moves, readAll(pgn).get(0).moves());
+    }
+
+    private static List<PgnGame> readAll(String pgn) throws IOException {
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            for (PgnGame game = reader.readGame(); game != null; game = reader.readGame()) {
+                games.add(game);
+            }
+        }
+        return games;
+    }
+
+    private static String write(PgnGame game) throws IOException {
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            writer.writeGame(game);
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,80 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static passoff.chess.TestSquares.move;
+import static passoff.chess.TestSquares.square;
+
+class SanTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // Plain piece and pawn moves
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | e2 | e4 | | e4",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 | g1 | f3 | | Nf3",
+            // Disambiguation by file, by rank, and by both
+            "4k3/8/8/8/8/8/8/1N3NK1 w - - 0 1 | b1 | d2 | | Nbd2",
+            "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1 | a1 | a3 | | R1a3",
+            "4k3/8/8/R7/8/8/8/R3K3 w - - 0 1 | a5 | a3 | | R5a3",
+            "4k3/8/8/8/8/Q7/8/Q1Q1K3 w - - 0 1 | a1 | b2 | | Qa1b2",
+            // Captures, en passant and promotions
+            "4k3/8/8/3p4/4P3/8/8/4K3 w - - 0 1 | e4 | d5 | | exd5",
+            "4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1 | e5 | d6 | | exd6",
+            "8/P3k3/8/8/8/8/8/4K3 w - - 0 1 | a7 | a8 | QUEEN | a8=Q",
+            "1r2k3/P7/8/8/8/8/8/4K3 w - - 0 1 | a7 | b8 | KNIGHT | axb8=N",
+            // Castling
+            "r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1 | e1 | g1 | | O-O",
+            "r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 0 1 | e8 | c8 | | O-O-O",
+    })
+    void formatsAndParses(String fen, String from, String to, ChessPiece.PieceType promotion, String san)
+            throws PgnException {
+        ChessGame game = ChessGame.fromFen(fen);
+        ChessMove move = new ChessMove(square(from), square(to), promotion);
+
+        StringBuilder out = new StringBuilder();
+        San.format(game, move, out);
+        assertEquals(san, out.toString());
+        assertEquals(move, San.parse(game, san));
+    }
+
+    @Test
+    void parseIgnoresSuffixesAndAnnotations() throws PgnException {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        ChessMove mate = move("a1", "a8");
+
+        assertEquals(mate, San.parse(game, "Ra8#"));
+        assertEquals(mate, San.parse(game, "Ra8+"));
+        assertEquals(mate, San.parse(game, "Ra8!?"));
+    }
+
+    @Test
+    void parseAcceptsZeroCastling() throws PgnException {
+        ChessGame game = ChessGame.fromFen("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        assertEquals(move("e1", "c1"), San.parse(game, "0-0-0"));
+    }
+
+    @Test
+    void parseRejectsAmbiguousMoves() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N3NK1 w - - 0 1");
+
+        PgnException e = assertThrows(PgnException.class, () -> San.parse(game, "Nd2"));
+        assertTrue(e.getMessage().startsWith("Ambiguous"), e.getMessage());
+    }
+
+    @Test
+    void parseRejectsIllegalAndMalformedMoves() {
+        ChessGame game = new ChessGame();
+
+        assertThrows(PgnException.class, () -> San.parse(game, "e5"));
+        assertThrows(PgnException.class, () -> San.parse(game, "O-O"));
+        assertThrows(PgnException.class, () -> San.parse(game, "Zz9"));
+        assertThrows(PgnException.class, () -> San.parse(game, "e"));
+    }
+}
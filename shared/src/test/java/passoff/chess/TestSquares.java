@@ -0,0 +1,37 @@
+package passoff.chess;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Squares and moves written the way a chess player would, e.g. "e4" or "e7e8q"
+ */
+public class TestSquares {
+
+    private TestSquares() {
+    }
+
+    public static ChessPosition square(String name) {
+        return ChessPosition.of(name.charAt(1) - '0', name.charAt(0) - 'a' + 1);
+    }
+
+    public static ChessMove move(String from, String to) {
+        return new ChessMove(square(from), square(to), null);
+    }
+
+    /**
+     * @param move the start and end squares run together, then the promotion
+     *             piece's letter if there is one, e.g. "g1f3" or "a7b8n"
+     */
+    public static ChessMove move(String move) {
+        ChessPiece.PieceType promotion = switch (move.length() > 4 ? move.charAt(4) : ' ') {
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            default -> null;
+        };
+        return new ChessMove(square(move.substring(0, 2)), square(move.substring(2, 4)), promotion);
+    }
+}